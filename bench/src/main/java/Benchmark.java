@@ -0,0 +1,421 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Maze Assignment: Benchmark.java
+ *
+ * Micro-benchmarks for the parts of the simulation that run
+ * on every step: stepping, perception, moving, acting, each
+ * kind of agent's deliberation and logging, plus reading the
+ * maze files.  Each benchmark is run on randomly walled mazes
+ * of several sizes with several numbers of agents; after a
+ * warmup period, it is timed over a number of measurement
+ * periods, and the throughput and the bytes allocated per
+ * operation are reported, so changes to these paths can be
+ * measured rather than guessed at.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class Benchmark {
+
+    /** Maze sizes used when none are given */
+    static final int[] DEFAULT_CELLS = { 10, 100, 1000 };
+
+    /** Agent counts used when none are given */
+    static final int[] DEFAULT_AGENTS = { 1, 100, 1000 };
+
+    /** Milliseconds of warmup before measuring each benchmark */
+    static final int WARMUP_MILLIS = 1000;
+
+    /** Number of measurement periods for each benchmark */
+    static final int ITERATIONS = 5;
+
+    /** Milliseconds in each measurement period */
+    static final int ITERATION_MILLIS = 1000;
+
+    /** Chance that any one wall is present in a generated maze */
+    static final double WALL_DENSITY = 0.3;
+
+    /** Seed for the generated mazes, so runs are comparable */
+    static final long SEED = 42;
+
+    /** Results are folded in here so the work cannot be optimized away */
+    static volatile long sink;
+
+    /**
+     * One operation to be timed.  setUp prepares a world for
+     * the passed size and agent count, run does one operation,
+     * and tearDown releases anything setUp acquired.
+     */
+    static abstract class Case {
+        /** Name the benchmark is reported under */
+        final String name;
+        /** Whether the maze size and agent count matter to the benchmark */
+        final boolean sized;
+
+        Case(String name, boolean sized) {
+            this.name = name;
+            this.sized = sized;
+        }
+
+        abstract void setUp(int cells, int agents) throws Exception;
+
+        abstract void run() throws Exception;
+
+        void tearDown() {
+        }
+    }
+
+    /**
+     * Build a maze with walls all round and random walls inside,
+     * with agents of the given kinds spread over it at random.
+     * The world never stops by itself: it does not log, is not
+     * displayed, and does not look for repeated states.
+     *
+     * @param cells number of cells along each side
+     * @param agents number of agents
+     * @param kinds XML names of the kinds of agent to use, in turn
+     * @return the world
+     * @throws SAXException if an agent cannot be created
+     */
+    static World makeWorld(int cells, int agents, String... kinds) throws SAXException {
+        Random r = new Random(SEED);
+        World w = new World(World.DEFAULT_WIDTH, World.DEFAULT_HEIGHT, cells,
+                null, true, 0, 0, false);
+        w.setHeadless(true);
+        w.setStopCycles(false);
+        for (int x = 0; x < cells; x++)
+            for (int y = 0; y <= cells; y++)
+                if (y == 0 || y == cells || r.nextDouble() < WALL_DENSITY)
+                    w.addBeam(x, y);
+        for (int x = 0; x <= cells; x++)
+            for (int y = 0; y < cells; y++)
+                if (x == 0 || x == cells || r.nextDouble() < WALL_DENSITY)
+                    w.addPole(x, y);
+        Agent.Heading[] headings = Agent.Heading.values();
+        for (int i = 0; i < agents; i++) {
+            AttributesImpl atts = new AttributesImpl();
+            atts.addAttribute("", Agent.DynamicAgentAttributes.X_PARAM, Agent.DynamicAgentAttributes.X_PARAM,
+                    "CDATA", Integer.toString(r.nextInt(cells)));
+            atts.addAttribute("", Agent.DynamicAgentAttributes.Y_PARAM, Agent.DynamicAgentAttributes.Y_PARAM,
+                    "CDATA", Integer.toString(r.nextInt(cells)));
+            atts.addAttribute("", Agent.DynamicAgentAttributes.HEADING_PARAM,
+                    Agent.DynamicAgentAttributes.HEADING_PARAM, "CDATA",
+                    headings[r.nextInt(headings.length)].toString());
+            String kind = kinds[i % kinds.length];
+            Agent a;
+            if (Follower.XML_NAME.equals(kind))
+                a = new Follower(w, i + 1, atts, null);
+            else if (Stepper.XML_NAME.equals(kind))
+                a = new Stepper(w, i + 1, atts, null);
+            else
+                a = new TrialAndError(w, i + 1, atts, null);
+            w.addAgent(a);
+        }
+        return w;
+    }
+
+    /**
+     * Get the agents of a world in order
+     */
+    static Agent[] agentsOf(World w) {
+        WorldSnapshot s = w.snapshot(0);
+        Agent[] as = new Agent[s.size()];
+        for (int i = 0; i < as.length; i++)
+            as[i] = s.getAgent(i);
+        return as;
+    }
+
+    /**
+     * Benchmark each kind of agent deliberating about
+     * the walls around it, without perceiving them.
+     */
+    static Case deliberate(final String kind) {
+        return new Case("deliberate." + kind, true) {
+            Agent[] as;
+            int[] blocked;
+
+            void setUp(int cells, int agents) throws SAXException {
+                World w = makeWorld(cells, agents, kind);
+                as = agentsOf(w);
+                blocked = new int[as.length];
+                for (int i = 0; i < as.length; i++)
+                    blocked[i] = w.wallsAround(as[i]);
+            }
+
+            void run() {
+                for (int i = 0; i < as.length; i++)
+                    as[i].deliberate(blocked[i]);
+            }
+        };
+    }
+
+    /**
+     * @param mazes directory of maze files for the parsing benchmark
+     * @return every benchmark
+     */
+    static List<Case> cases(final File mazes) {
+        List<Case> cs = new ArrayList<Case>();
+        final String[] all = { Follower.XML_NAME, Stepper.XML_NAME, TrialAndError.XML_NAME };
+
+        cs.add(new Case("stepWorld", true) {
+            World w;
+
+            void setUp(int cells, int agents) throws SAXException {
+                w = makeWorld(cells, agents, all);
+            }
+
+            void run() {
+                w.stepWorld();
+            }
+        });
+
+        cs.add(new Case("makeAgentThink", true) {
+            World w;
+            Agent[] as;
+
+            void setUp(int cells, int agents) throws SAXException {
+                w = makeWorld(cells, agents, all);
+                as = agentsOf(w);
+            }
+
+            void run() {
+                for (Agent a : as)
+                    w.makeAgentThink(a);
+            }
+        });
+
+        cs.add(new Case("tryToMove", true) {
+            World w;
+            Agent[] as;
+            int[] xs, ys;
+
+            void setUp(int cells, int agents) throws SAXException {
+                w = makeWorld(cells, agents, all);
+                as = agentsOf(w);
+                xs = new int[as.length];
+                ys = new int[as.length];
+                for (int i = 0; i < as.length; i++) {
+                    xs[i] = as[i].getLocX();
+                    ys[i] = as[i].getLocY();
+                }
+            }
+
+            void run() {
+                for (int i = 0; i < as.length; i++) {
+                    Agent a = as[i];
+                    Agent.Heading h = a.getHeading();
+                    w.tryToMove(a, xs[i] + h.dx, ys[i] + h.dy);
+                    a.setLocX(xs[i]);
+                    a.setLocY(ys[i]);
+                }
+            }
+        });
+
+        cs.add(new Case("act", true) {
+            Agent[] as;
+
+            void setUp(int cells, int agents) throws SAXException {
+                World w = makeWorld(cells, agents, all);
+                as = agentsOf(w);
+                for (Agent a : as)
+                    w.makeAgentThink(a);
+            }
+
+            void run() {
+                for (Agent a : as)
+                    a.act();
+            }
+        });
+
+        cs.add(deliberate(Follower.XML_NAME));
+        cs.add(deliberate(Stepper.XML_NAME));
+        cs.add(deliberate(TrialAndError.XML_NAME));
+
+        cs.add(new Case("logStep", true) {
+            World w;
+            File log;
+
+            void setUp(int cells, int agents) throws IOException, SAXException {
+                w = makeWorld(cells, agents, all);
+                log = File.createTempFile("bench", ".xml");
+                w.setLogfile(log.getPath());
+                w.startLogging();
+            }
+
+            void run() {
+                w.logStep();
+            }
+
+            void tearDown() {
+                w.finishLogging();
+                log.delete();
+                new File(log.getPath() + LogIndex.INDEX_SUFFIX).delete();
+            }
+        });
+
+        cs.add(new Case("parse", false) {
+            List<String> files = new ArrayList<String>();
+
+            void setUp(int cells, int agents) throws IOException {
+                files.clear();
+                String[] names = mazes.list();
+                if (names != null) {
+                    Arrays.sort(names);
+                    for (String n : names)
+                        if (n.endsWith(CorpusRunner.MAZE_SUFFIX))
+                            files.add(new File(mazes, n).getPath());
+                }
+                if (files.isEmpty())
+                    throw new IOException("No maze files in " + mazes);
+            }
+
+            void run() throws IOException, SAXException {
+                for (String f : files)
+                    sink += HeadlessSimulation.load(f).getDimension();
+            }
+        });
+        return cs;
+    }
+
+    /**
+     * Counts the bytes allocated by the current thread, where the
+     * virtual machine supports it.
+     */
+    static class AllocationCounter {
+        private final com.sun.management.ThreadMXBean bean;
+
+        AllocationCounter() {
+            ThreadMXBean b = ManagementFactory.getThreadMXBean();
+            bean = (b instanceof com.sun.management.ThreadMXBean)
+                ? (com.sun.management.ThreadMXBean) b : null;
+        }
+
+        /**
+         * @return bytes allocated by this thread so far, or -1 if unknown
+         */
+        long allocated() {
+            if (bean == null)
+                return -1;
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+
+    /**
+     * Run an operation over and over for a while.
+     *
+     * @return number of times the operation ran
+     */
+    static long repeat(Case c, long millis) throws Exception {
+        long end = System.nanoTime() + millis * 1000000L;
+        long ops = 0;
+        do {
+            c.run();
+            ops++;
+        } while (System.nanoTime() < end);
+        return ops;
+    }
+
+    /**
+     * Warm up and measure one benchmark at one size, and print the result.
+     */
+    static void measure(Case c, int cells, int agents, AllocationCounter alloc) throws Exception {
+        c.setUp(cells, agents);
+        try {
+            repeat(c, WARMUP_MILLIS);
+            long ops = 0;
+            long nanos = 0;
+            long bytes = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long a0 = alloc.allocated();
+                long t0 = System.nanoTime();
+                ops += repeat(c, ITERATION_MILLIS);
+                nanos += System.nanoTime() - t0;
+                long a1 = alloc.allocated();
+                bytes = (a0 < 0 || bytes < 0) ? -1 : bytes + (a1 - a0);
+            }
+            String b = bytes < 0 ? "-" : String.format("%.1f", (double) bytes / ops);
+            System.out.println(String.format("%-22s %6s %7s %14.1f %14.1f %12s",
+                    c.name, c.sized ? Integer.toString(cells) : "-",
+                    c.sized ? Integer.toString(agents) : "-",
+                    ops * 1e9 / nanos, (double) nanos / ops, b));
+        } finally {
+            c.tearDown();
+        }
+    }
+
+    /**
+     * Parse a comma-separated list of numbers
+     */
+    static int[] parseList(String s) {
+        String[] parts = s.split(",");
+        int[] ns = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            ns[i] = Integer.parseInt(parts[i].trim());
+        return ns;
+    }
+
+    /**
+     * Command-line interface to the benchmarks.
+     *
+     * @param args array of strings specified on the
+     *             command line; optionally -cells and
+     *             -agents followed by comma-separated
+     *             lists, -mazes and a directory of maze
+     *             files, and the names of the benchmarks
+     *             to run (all of them if none are named)
+     */
+    public static void main(String[] args) {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        int[] cellCounts = DEFAULT_CELLS;
+        int[] agentCounts = DEFAULT_AGENTS;
+        File mazes = new File("mazes");
+        List<String> only = new ArrayList<String>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if ("-cells".equals(args[i]) && i + 1 < args.length)
+                    cellCounts = parseList(args[++i]);
+                else if ("-agents".equals(args[i]) && i + 1 < args.length)
+                    agentCounts = parseList(args[++i]);
+                else if ("-mazes".equals(args[i]) && i + 1 < args.length)
+                    mazes = new File(args[++i]);
+                else
+                    only.add(args[i]);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Usage error: run as <program> [-cells n,...] [-agents n,...] [-mazes dir] [benchmark...]");
+            return;
+        }
+
+        AllocationCounter alloc = new AllocationCounter();
+        System.out.println(String.format("%-22s %6s %7s %14s %14s %12s",
+                "benchmark", "cells", "agents", "ops/s", "ns/op", "B/op"));
+        for (Case c : cases(mazes)) {
+            if (!only.isEmpty() && !only.contains(c.name))
+                continue;
+            try {
+                if (!c.sized) {
+                    measure(c, 0, 0, alloc);
+                    continue;
+                }
+                for (int cells : cellCounts)
+                    for (int agents : agentCounts)
+                        measure(c, cells, agents, alloc);
+            } catch (Exception e) {
+                System.err.println(c.name + ": " + e);
+            }
+        }
+    }
+}
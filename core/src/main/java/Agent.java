@@ -1,9 +1,7 @@
-import java.awt.Graphics;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
@@ -30,8 +28,8 @@ public abstract class Agent {
 	 */
 	static enum Heading {
 		// Declarations (enum constructor calls)
-		NORTH("north", 0, -1), SOUTH("south", 0, 1), EAST("east", 1, 0), WEST(
-				"west", -1, 0);
+		NORTH("north", 0, -1, 0), SOUTH("south", 0, 1, 2), EAST("east", 1, 0,
+				1), WEST("west", -1, 0, 3);
 
 		/** Name of a heading */
 		public final String description;
@@ -39,12 +37,15 @@ public abstract class Agent {
 		public final int dx;
 		/** Change in map y coordinate with one step in this heading */
 		public final int dy;
+		/** Quarter turns clockwise from north */
+		public final int clockwise;
 
 		/** Enum constructor */
-		private Heading(String d, int x, int y) {
+		private Heading(String d, int x, int y, int c) {
 			description = d;
 			dx = x;
 			dy = y;
+			clockwise = c;
 		}
 
 		/** Opposite direction */
@@ -76,20 +77,26 @@ public abstract class Agent {
 	 */
 	static enum Direction {
 		/** The cardinal direction the agent is facing */
-		AHEAD("ahead"),
+		AHEAD("ahead", 0),
 		/** The cardinal direction to the left of the agent */
-		LEFT("left"),
+		LEFT("left", 3),
 		/** The cardinal direction to the right of the agent */
-		RIGHT("right"),
+		RIGHT("right", 1),
 		/** The cardinal direction behind the agent */
-		BEHIND("behind");
+		BEHIND("behind", 2);
 		public final String description;
+		/** Quarter turns clockwise from ahead */
+		public final int clockwise;
 
-		private Direction(String d) {
+		private Direction(String d, int c) {
 			description = d;
+			clockwise = c;
 		}
 	}
 
+	/** Directions in the order the world reports percepts */
+	static final Direction[] DIRECTIONS = Direction.values();
+
 	/** Convenience variables for reading and writing XML code */
 	static final String OPEN = "=\"";
 	static final String CLOSE = "\" ";
@@ -212,8 +219,8 @@ public abstract class Agent {
 
 	}
 
-	/** object that provides customizable defaults for new agent parameters */
-	static FixedAgentAttributes defaultFixedAgentAttributes = new Agent.FixedAgentAttributes(
+	/** Starting point for each world's record of defaults for unregistered kinds of agent */
+	static final FixedAgentAttributes defaultFixedAgentAttributes = new Agent.FixedAgentAttributes(
 			false, false);
 
 	/** Class to hold default values for dynamically changing parameters */
@@ -276,6 +283,20 @@ public abstract class Agent {
 			message = a.message;
 		}
 
+		/**
+		 * Make these attributes the same as a, in place
+		 * 
+		 * @param a
+		 *            attributes to mirror
+		 */
+		public void copy(DynamicAgentAttributes a) {
+			locX = a.locX;
+			locY = a.locY;
+			heading = a.heading;
+			bumped = a.bumped;
+			message = a.message;
+		}
+
 		/**
 		 * Initialize or reinitialize agent attributes based on XML data
 		 * 
@@ -358,8 +379,8 @@ public abstract class Agent {
 		}
 	}
 
-	/** object that provides defaults for new agent parameters */
-	static DynamicAgentAttributes defaultDynamicAgentAttributes = new Agent.DynamicAgentAttributes(
+	/** Starting point for each world's record of default state for unregistered kinds of agent */
+	static final DynamicAgentAttributes defaultDynamicAgentAttributes = new Agent.DynamicAgentAttributes(
 			1, 1, Heading.NORTH, false, null);
 
 	/**
@@ -381,12 +402,23 @@ public abstract class Agent {
 	/** What is the agent doing right now */
 	protected DynamicAgentAttributes status;
 
-	/** Actions computed by deliberation that have yet to be acted on */
-	protected List<Intention> todo = null;
+	/**
+	 * Actions computed by deliberation that have yet to be acted on; clear
+	 * and refill it in deliberate rather than replacing it, and use the
+	 * shared intentions from Intention.of
+	 */
+	protected List<Intention> todo = new ArrayList<Intention>(4);
 
 	/** Preserve last status for debugging visualization */
 	protected DynamicAgentAttributes lastStatus = null;
 
+	/**
+	 * List the world fills with this agent's percepts each step; it is
+	 * cleared and reused rather than allocated anew, so deliberate should
+	 * not hold on to it between steps
+	 */
+	protected final List<Percept> perceptBuffer = new ArrayList<Percept>(4);
+
 	/**
 	 * Accessor methods
 	 */
@@ -509,9 +541,11 @@ public abstract class Agent {
 	 * @return
 	 */
 	protected boolean isBlocked(List<Percept> ps, Agent.Direction d) {
-		for (Percept p : ps)
+		for (int i = 0, n = ps.size(); i < n; i++) {
+			Percept p = ps.get(i);
 			if (p.getDirection() == d && p.getDistance() < 2)
 				return true;
+		}
 
 		return false;
 	}
@@ -530,6 +564,60 @@ public abstract class Agent {
 		return !isBlocked(ps, d);
 	}
 
+	/**
+	 * Helper function for perception.
+	 * 
+	 * Return true if the passed mask of adjacent walls shows that you can't
+	 * proceed in the direction d.
+	 * 
+	 * @param blocked
+	 *            mask with bit d.clockwise set for each direction d with a
+	 *            wall next to the agent
+	 * @param d
+	 *            direction to check
+	 * @return true if there is a wall that way
+	 */
+	protected boolean isBlocked(int blocked, Agent.Direction d) {
+		return (blocked & (1 << d.clockwise)) != 0;
+	}
+
+	/**
+	 * Helper function for perception.
+	 * 
+	 * Return true if the passed mask of adjacent walls shows no wall in
+	 * direction d.
+	 * 
+	 * @param blocked
+	 *            mask with bit d.clockwise set for each direction d with a
+	 *            wall next to the agent
+	 * @param d
+	 *            direction to check
+	 * @return true if there is no wall that way
+	 */
+	protected boolean isOpen(int blocked, Agent.Direction d) {
+		return !isBlocked(blocked, d);
+	}
+
+	/**
+	 * Helper function for perception.
+	 * 
+	 * Summarize a list of percepts as a mask of the directions in which
+	 * there is a wall next to the agent.
+	 * 
+	 * @param ps
+	 *            what the agent perceives
+	 * @return mask with bit d.clockwise set for each blocked direction d
+	 */
+	protected static int blockedMask(List<Percept> ps) {
+		int blocked = 0;
+		for (int i = 0, n = ps.size(); i < n; i++) {
+			Percept p = ps.get(i);
+			if (p.getDistance() < 2)
+				blocked |= 1 << p.getDirection().clockwise;
+		}
+		return blocked;
+	}
+
 	/**
 	 * Helper function for perception
 	 * 
@@ -620,13 +708,13 @@ public abstract class Agent {
 		case AHEAD:
 			return;
 		case LEFT:
-			todo.add(new Intention(Intention.ActionType.TURN_LEFT));
+			todo.add(Intention.of(Intention.ActionType.TURN_LEFT));
 			break;
 		case RIGHT:
-			todo.add(new Intention(Intention.ActionType.TURN_RIGHT));
+			todo.add(Intention.of(Intention.ActionType.TURN_RIGHT));
 			break;
 		case BEHIND:
-			todo.add(new Intention(Intention.ActionType.TURN_BACK));
+			todo.add(Intention.of(Intention.ActionType.TURN_BACK));
 			break;
 		}
 		return;
@@ -664,17 +752,22 @@ public abstract class Agent {
 	 * includes one turning action, and one step. Then move the agent one step.
 	 */
 	public void act() {
-		Set<Intention.ActionType> done = new HashSet<Intention.ActionType>();
-
-		lastStatus = new DynamicAgentAttributes(status);
-
-		for (Intention a : todo) {
-			Intention.ActionType t = a.getType();
-			if (done.contains(t)) {
+		// one bit per action type already carried out
+		int done = 0;
+
+		if (lastStatus == null)
+			lastStatus = new DynamicAgentAttributes(status);
+		else
+			lastStatus.copy(status);
+
+		for (int i = 0, n = todo.size(); i < n; i++) {
+			Intention.ActionType t = todo.get(i).getType();
+			int bit = 1 << t.ordinal();
+			if ((done & bit) != 0) {
 				System.err.println("Error: repeated action of " + t.description
 						+ " ignored");
 			}
-			done.add(t);
+			done |= bit;
 			switch (t) {
 			case TURN_LEFT:
 				turnLeft();
@@ -710,6 +803,11 @@ public abstract class Agent {
 	 */
 	public abstract void log(BufferedWriter out) throws IOException;
 
+	/**
+	 * @return the XML element tag that describes this kind of agent
+	 */
+	public abstract String getXmlName();
+
 	/**
 	 * Write an XML description of the dynamic properties of the agent
 	 * 
@@ -744,10 +842,23 @@ public abstract class Agent {
 	/**
 	 * renders a picture of the agent into the world display
 	 * 
-	 * @param g
-	 *            graphics information
+	 * @param c
+	 *            where to draw
 	 */
-	public abstract void draw(Graphics g);
+	public void draw(AgentCanvas c) {
+		draw(c, status);
+	}
+
+	/**
+	 * renders a picture of the agent into the world display, as it was when
+	 * it had the dynamic attributes s; used to show recorded snapshots
+	 * 
+	 * @param c
+	 *            where to draw
+	 * @param s
+	 *            position and heading to draw the agent at
+	 */
+	public abstract void draw(AgentCanvas c, DynamicAgentAttributes s);
 
 	/**
 	 * Method each agent uses to update its internal todo list on the basis of a
@@ -758,4 +869,40 @@ public abstract class Agent {
 	 *            agent's perspective
 	 */
 	public abstract void deliberate(List<Percept> ps);
+
+	/**
+	 * Fast path for deliberation, used by the world when all the agent can
+	 * perceive is the walls right next to it. Agents whose decisions only
+	 * depend on those walls can override this to work from the mask
+	 * directly, without any list of percepts; by default the walls are
+	 * turned into percepts (ahead, left, right, behind, as the world
+	 * reports them) and passed to deliberate(List).
+	 * 
+	 * @param blocked
+	 *            mask with bit d.clockwise set for each direction d with a
+	 *            wall next to the agent
+	 */
+	public void deliberate(int blocked) {
+		List<Percept> ps = perceptBuffer;
+		ps.clear();
+		for (Direction d : DIRECTIONS) {
+			if (isBlocked(blocked, d))
+				ps.add(Percept.of(Percept.ObjectCategory.OBSTACLE, 1, d));
+		}
+		deliberate(ps);
+	}
+
+	/**
+	 * Summarize whatever the agent remembers from step to step that affects
+	 * what it will do, beyond its location and heading. The world uses this
+	 * to tell when a simulation has got back to an earlier state and would
+	 * repeat forever, so agents that keep such memory must override this;
+	 * two states the agent could behave differently in must give different
+	 * values.
+	 * 
+	 * @return a number standing for the agent's memory, 0 if it has none
+	 */
+	public long stateHash() {
+		return 0;
+	}
 }
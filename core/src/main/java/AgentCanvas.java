@@ -0,0 +1,40 @@
+/**
+ * Maze Assignment: AgentCanvas.java
+ *
+ * What agents draw themselves on.  Shapes are given in
+ * pixels relative to the centre of a maze cell, so agents
+ * can say how they look without knowing how big cells are
+ * on screen or what toolkit does the drawing.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public interface AgentCanvas {
+
+    /**
+     * Fill a polygon around the centre of cell (x, y).
+     * The points are moved into place in the passed arrays.
+     *
+     * @param x horizontal coordinate of the cell
+     * @param y vertical coordinate of the cell
+     * @param xpoints horizontal offsets of the corners
+     * @param ypoints vertical offsets of the corners
+     * @param numPoints number of corners
+     */
+    void fillPolygon(int x, int y, int[] xpoints, int[] ypoints, int numPoints);
+
+    /**
+     * Fill an oval centred in cell (x, y)
+     */
+    void fillOval(int x, int y, int width, int height);
+
+    /**
+     * Fill a rectangle centred in cell (x, y)
+     */
+    void fillRect(int x, int y, int width, int height);
+
+    /**
+     * Draw a line between two offsets from the centre of cell (x, y)
+     */
+    void drawLine(int x, int y, int x1, int y1, int x2, int y2);
+}
@@ -0,0 +1,85 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maze Assignment: AgentDefaults.java
+ *
+ * The default attributes for each kind of agent in one world.
+ * A defaults element in a world spec changes only that world's
+ * record, so worlds loaded at the same time, or one after the
+ * other in the same program, do not affect each other.
+ * Every record starts as a copy of the defaults declared by
+ * the agent class.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class AgentDefaults {
+
+    /** Default fixed attributes, by XML element name of the agent */
+    private final Map<String, Agent.FixedAgentAttributes> fixed =
+        new HashMap<String, Agent.FixedAgentAttributes>();
+
+    /** Default dynamic attributes, by XML element name of the agent */
+    private final Map<String, Agent.DynamicAgentAttributes> dynamic =
+        new HashMap<String, Agent.DynamicAgentAttributes>();
+
+    /**
+     * Constructor: the defaults declared by each kind of agent
+     */
+    public AgentDefaults() {
+        register(Follower.XML_NAME, Follower.defaultFixedAgentAttributes,
+                Follower.defaultDynamicAgentAttributes);
+        register(Stepper.XML_NAME, Stepper.defaultFixedAgentAttributes,
+                Stepper.defaultDynamicAgentAttributes);
+        register(TrialAndError.XML_NAME, TrialAndError.defaultFixedAgentAttributes,
+                TrialAndError.defaultDynamicAgentAttributes);
+    }
+
+    /**
+     * Start the record for a kind of agent from copies of the passed defaults.
+     *
+     * @param type XML element name of the agent
+     * @param f default fixed attributes
+     * @param d default dynamic attributes
+     */
+    public void register(String type, Agent.FixedAgentAttributes f,
+            Agent.DynamicAgentAttributes d) {
+        fixed.put(type, new Agent.FixedAgentAttributes(f));
+        dynamic.put(type, new Agent.DynamicAgentAttributes(d));
+    }
+
+    /**
+     * Get the default fixed attributes for a kind of agent.
+     * Kinds that were never registered start from the
+     * defaults for all agents.
+     *
+     * @param type XML element name of the agent
+     * @return the record, which may be updated in place
+     */
+    public Agent.FixedAgentAttributes getFixed(String type) {
+        Agent.FixedAgentAttributes f = fixed.get(type);
+        if (f == null) {
+            f = new Agent.FixedAgentAttributes(Agent.defaultFixedAgentAttributes);
+            fixed.put(type, f);
+        }
+        return f;
+    }
+
+    /**
+     * Get the default dynamic attributes for a kind of agent.
+     * Kinds that were never registered start from the
+     * defaults for all agents.
+     *
+     * @param type XML element name of the agent
+     * @return the record, which may be updated in place
+     */
+    public Agent.DynamicAgentAttributes getDynamic(String type) {
+        Agent.DynamicAgentAttributes d = dynamic.get(type);
+        if (d == null) {
+            d = new Agent.DynamicAgentAttributes(Agent.defaultDynamicAgentAttributes);
+            dynamic.put(type, d);
+        }
+        return d;
+    }
+}
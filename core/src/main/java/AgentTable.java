@@ -0,0 +1,163 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Maze Assignment: AgentTable.java
+ *
+ * The agents living in a world, kept densely in an array
+ * with a map from agent id to array slot, so that agents
+ * can be found by id in constant time.
+ *
+ * Agents are kept in the order they were added.  Removing
+ * a single agent moves the last agent into its slot, which
+ * takes constant time; removing all the dead agents at once,
+ * as the world does after each step, keeps the survivors in
+ * order, so logs come out the same from run to run.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class AgentTable implements Iterable<Agent> {
+
+    /** Initial number of slots */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The agents, in slots 0 to size - 1 */
+    private Agent[] agents;
+
+    /** Number of agents in the table */
+    private int size;
+
+    /** Slot of each agent, by id */
+    private Map<Integer, Integer> slots;
+
+    /**
+     * Constructor: an empty table
+     */
+    public AgentTable() {
+        agents = new Agent[INITIAL_CAPACITY];
+        size = 0;
+        slots = new HashMap<Integer, Integer>();
+    }
+
+    /**
+     * @return number of agents in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i slot, 0 <= i < size()
+     * @return the agent in slot i
+     */
+    public Agent get(int i) {
+        return agents[i];
+    }
+
+    /**
+     * Find an agent by id
+     *
+     * @param id creation index of the agent
+     * @return the agent, or null if there is none with that id
+     */
+    public Agent getById(int id) {
+        Integer slot = slots.get(id);
+        return slot == null ? null : agents[slot];
+    }
+
+    /**
+     * Add an agent after all the others.  An agent already
+     * in the table with the same id is replaced.
+     *
+     * @param a agent to add
+     */
+    public void add(Agent a) {
+        Integer slot = slots.get(a.getId());
+        if (slot != null) {
+            agents[slot] = a;
+            return;
+        }
+        if (size == agents.length) {
+            Agent[] bigger = new Agent[size * 2];
+            System.arraycopy(agents, 0, bigger, 0, size);
+            agents = bigger;
+        }
+        agents[size] = a;
+        slots.put(a.getId(), size);
+        size++;
+    }
+
+    /**
+     * Remove an agent, moving the last agent into its slot.
+     *
+     * @param a agent to remove
+     */
+    public void remove(Agent a) {
+        Integer slot = slots.get(a.getId());
+        if (slot == null || agents[slot] != a)
+            return;
+        slots.remove(a.getId());
+        size--;
+        if (slot != size) {
+            Agent last = agents[size];
+            agents[slot] = last;
+            slots.put(last.getId(), slot);
+        }
+        agents[size] = null;
+    }
+
+    /**
+     * Remove every agent that is no longer alive, keeping
+     * the rest in order.  Each dead agent is passed to the
+     * world to be logged before it goes.
+     *
+     * @param w world to report deaths to
+     */
+    void removeDead(World w) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Agent a = agents[i];
+            if (a.isAlive()) {
+                if (kept != i) {
+                    agents[kept] = a;
+                    slots.put(a.getId(), kept);
+                }
+                kept++;
+            } else {
+                w.logDeath(a);
+                slots.remove(a.getId());
+            }
+        }
+        for (int i = kept; i < size; i++)
+            agents[i] = null;
+        size = kept;
+    }
+
+    /**
+     * Iterate over the agents in order
+     *
+     * @return iterator over the agents
+     */
+    public Iterator<Agent> iterator() {
+        return new Iterator<Agent>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            public Agent next() {
+                if (next >= size)
+                    throw new NoSuchElementException();
+                return agents[next++];
+            }
+
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -0,0 +1,580 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+/**
+ * Maze Assignment: BinaryTrace.java
+ *
+ * Compact binary alternative to the XML history log.
+ *
+ * A trace starts with a header giving the world parameters,
+ * the walls of the maze, and the type and fixed attributes of
+ * each agent.  The walls of a world read from a maze file are
+ * not listed; the header names the maze file instead.  After
+ * that it is a sequence of fixed-width records, each an int
+ * agent id, int x, int y, a byte for the heading ordinal and
+ * a byte for the bumped flag.
+ * Records with negative ids mark the start of a step, a
+ * wait between steps, or the death of an agent, in the same
+ * order the XML log would have the corresponding elements.
+ * Debug messages are not recorded.
+ *
+ * The class also converts between traces and XML logs, so
+ * that traces can be replayed by MazeReader.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class BinaryTrace {
+
+    /** First four bytes of every trace file: "MZTR" */
+    static final int MAGIC = 0x4D5A5452;
+
+    /** Version of the record layout */
+    static final int VERSION = 2;
+
+    /** Oldest version that can still be read: no maze file name in the header */
+    static final int FIRST_VERSION = 1;
+
+    /** Size in bytes of every record after the header */
+    static final int RECORD_SIZE = 14;
+
+    /** Record id marking the start of a step; x holds the step number */
+    static final int STEP_MARK = -1;
+
+    /** Record id marking a wait between steps; x holds the time */
+    static final int WAIT_MARK = -2;
+
+    /** Record id marking the death of an agent; x holds the agent id */
+    static final int KILL_MARK = -3;
+
+    /** Value of the world logformat attribute that selects traces */
+    static final String FORMAT_NAME = "binary";
+
+    /** Where records are written */
+    private DataOutputStream out;
+
+    /**
+     * Constructor: prepare to write a trace
+     *
+     * @param out open channel to the trace file
+     */
+    public BinaryTrace(DataOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Write the magic number and world parameters that begin a trace.
+     *
+     * @param width horizontal extent of the display
+     * @param height vertical extent of the display
+     * @param cells size of the maze
+     * @param replay delay between steps on replay
+     * @throws IOException if writing fails
+     */
+    public void writeHeader(int width, int height, int cells, int replay) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(cells);
+        out.writeInt(replay);
+    }
+
+    /**
+     * Say where the walls are, right after the world parameters.
+     *
+     * @param path name of the maze file holding the walls, or null
+     *             if the lists of walls follow
+     * @throws IOException if writing fails
+     */
+    public void writeMazeFile(String path) throws IOException {
+        out.writeUTF(path != null ? path : "");
+    }
+
+    /**
+     * Begin a list of walls of one kind, first beams, then poles.
+     *
+     * @param n number of walls that follow
+     * @throws IOException if writing fails or there are too many walls
+     */
+    public void writeWallCount(long n) throws IOException {
+        if (n > Integer.MAX_VALUE)
+            throw new IOException("Too many walls for a trace: " + n);
+        out.writeInt((int) n);
+    }
+
+    /**
+     * Record a wall in the current list.
+     *
+     * @param x horizontal coordinate of the wall
+     * @param y vertical coordinate of the wall
+     * @throws IOException if writing fails
+     */
+    public void writeWall(int x, int y) throws IOException {
+        out.writeInt(x);
+        out.writeInt(y);
+    }
+
+    /**
+     * Begin the list of agents present at the start of the trace.
+     *
+     * @param n number of agents that follow
+     * @throws IOException if writing fails
+     */
+    public void writeRosterSize(int n) throws IOException {
+        out.writeInt(n);
+    }
+
+    /**
+     * Record what kind of agent a is and its fixed attributes.
+     *
+     * @param a agent present at the start of the trace
+     * @throws IOException if writing fails
+     */
+    public void writeRosterEntry(Agent a) throws IOException {
+        writeRosterEntry(a.getId(), a.getXmlName(), a.form.debug, a.form.withExtensions);
+    }
+
+    /**
+     * Record an agent's identity, kind and fixed attributes.
+     */
+    private void writeRosterEntry(int id, String type, boolean debug, boolean ext) throws IOException {
+        out.writeInt(id);
+        out.writeUTF(type);
+        out.writeBoolean(debug);
+        out.writeBoolean(ext);
+    }
+
+    /**
+     * Write one fixed-width record.
+     */
+    private void writeRecord(int id, int x, int y, int heading, boolean bumped) throws IOException {
+        out.writeInt(id);
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeByte(heading);
+        out.writeBoolean(bumped);
+    }
+
+    /**
+     * Mark the start of a step.
+     *
+     * @param step index of the step
+     * @throws IOException if writing fails
+     */
+    public void writeStep(int step) throws IOException {
+        writeRecord(STEP_MARK, step, 0, 0, false);
+    }
+
+    /**
+     * Record the dynamic state of agent a in the current step.
+     *
+     * @param a agent to describe
+     * @throws IOException if writing fails
+     */
+    public void writeAgent(Agent a) throws IOException {
+        writeRecord(a.getId(), a.getLocX(), a.getLocY(),
+                a.getHeading().ordinal(), a.getBumped());
+    }
+
+    /**
+     * Record the delay to use between steps on replay.
+     *
+     * @param time delay in milliseconds
+     * @throws IOException if writing fails
+     */
+    public void writeWait(int time) throws IOException {
+        writeRecord(WAIT_MARK, time, 0, 0, false);
+    }
+
+    /**
+     * Record that an agent has died.
+     *
+     * @param id identifier of the dead agent
+     * @throws IOException if writing fails
+     */
+    public void writeDeath(int id) throws IOException {
+        writeRecord(KILL_MARK, id, 0, 0, false);
+    }
+
+    /**
+     * Check whether a stream holds a trace rather than XML,
+     * without consuming any of it.
+     *
+     * @param in stream positioned at the start of a log
+     * @return true if the stream starts with the trace magic number
+     * @throws IOException if reading fails
+     */
+    public static boolean isTrace(BufferedInputStream in) throws IOException {
+        in.mark(4);
+        int magic = 0;
+        int n = 0;
+        for (; n < 4; n++) {
+            int b = in.read();
+            if (b < 0)
+                break;
+            magic = (magic << 8) | b;
+        }
+        in.reset();
+        return n == 4 && magic == MAGIC;
+    }
+
+    /**
+     * Helper for XML output: an attribute with its value.
+     */
+    private static String att(String name, String value) {
+        return name + Agent.OPEN + value + Agent.CLOSE;
+    }
+
+    /**
+     * Helper for XML output: the dynamic attributes of an agent,
+     * laid out as Agent.DynamicAgentAttributes.log lays them out.
+     */
+    private static String dynamic(int x, int y, int heading, boolean bumped) {
+        return att(Agent.DynamicAgentAttributes.X_PARAM, Integer.toString(x))
+                + att(Agent.DynamicAgentAttributes.Y_PARAM, Integer.toString(y))
+                + att(Agent.DynamicAgentAttributes.HEADING_PARAM,
+                        Agent.Heading.values()[heading].toString())
+                + att(Agent.DynamicAgentAttributes.BUMPED_PARAM, Boolean.toString(bumped))
+                + "\n";
+    }
+
+    /**
+     * Read a trace and write the XML log it describes,
+     * in the same layout the world would have logged it.
+     *
+     * @param in open trace, positioned at its start
+     * @param out destination for the XML log
+     * @throws IOException if reading or writing fails, or the trace is malformed
+     */
+    public static void toXml(DataInputStream in, Writer out) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a maze trace");
+        int version = in.readInt();
+        if (version < FIRST_VERSION || version > VERSION)
+            throw new IOException("Unsupported maze trace version " + version);
+        int width = in.readInt();
+        int height = in.readInt();
+        int cells = in.readInt();
+        in.readInt(); // replay interval, repeated in the wait records
+        String mazefile = version > FIRST_VERSION ? in.readUTF() : "";
+
+        out.write("<?xml version=\"1.0\"?>\n\n");
+        out.write("<" + World.XML_NAME + " xmlns=\"" + World.XMLNS + "\" "
+                + World.WIDTH_PARAM + "=\"" + width + "\" "
+                + World.HEIGHT_PARAM + "=\"" + height + "\" "
+                + World.CELL_PARAM + "=\"" + cells + "\" "
+                + (mazefile.length() > 0 ? World.MAZEFILE_PARAM + "=\"" + mazefile + "\" " : "")
+                + World.RUNNABLE_PARAM + "=\"false\" "
+                + World.DEBUG_PARAM + "=\"true\" >\n");
+        String[] walls = { MazeReader.BEAM_NAME, MazeReader.POLE_NAME };
+        // the walls of a maze file stay in the file
+        if (mazefile.length() == 0) {
+            for (String wall : walls) {
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    int x = in.readInt();
+                    int y = in.readInt();
+                    out.write("<" + wall + " " + MazeReader.X_PARAM + "=\"" + x
+                            + "\" " + MazeReader.Y_PARAM + "=\"" + y + "\" />\n");
+                }
+            }
+        }
+
+        // Agents present at the start are described in full in the first state
+        Map<Integer, String> roster = new HashMap<Integer, String>();
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            int id = in.readInt();
+            String type = in.readUTF();
+            boolean debug = in.readBoolean();
+            boolean ext = in.readBoolean();
+            roster.put(id, "   <" + type + " " + att(Agent.ID_PARAM, Integer.toString(id))
+                    + "\n     "
+                    + att(Agent.FixedAgentAttributes.DEBUG_PARAM, Boolean.toString(debug))
+                    + att(Agent.FixedAgentAttributes.EXTENSIONS_PARAM, Boolean.toString(ext))
+                    + "\n");
+        }
+
+        boolean first = true;
+        boolean inState = false;
+        while (true) {
+            int id;
+            try {
+                id = in.readInt();
+            } catch (EOFException e) {
+                break;
+            }
+            int x = in.readInt();
+            int y = in.readInt();
+            int heading = in.readByte();
+            boolean bumped = in.readBoolean();
+
+            if (id >= 0) {
+                if (first) {
+                    String head = roster.get(id);
+                    out.write(head != null ? head : "   <" + Agent.UPDATE + " "
+                            + att(Agent.ID_PARAM, Integer.toString(id)) + "\n");
+                } else {
+                    out.write("   <" + Agent.UPDATE + " "
+                            + att(Agent.ID_PARAM, Integer.toString(id)) + "\n");
+                }
+                out.write("    " + dynamic(x, y, heading, bumped) + "    />\n");
+                continue;
+            }
+            if (inState) {
+                out.write("  </" + World.STATE_NAME + ">\n");
+                inState = false;
+                first = false;
+            }
+            if (id == STEP_MARK) {
+                out.write("  <" + World.STATE_NAME + " " + World.STEP_NAME
+                        + "=\"" + x + "\"" + (first ? " " : "") + ">\n");
+                inState = true;
+            } else if (id == WAIT_MARK) {
+                out.write("  <" + World.WAIT_NAME + " " + World.WAIT_INTERVAL
+                        + "=\"" + x + "\"/>\n");
+            } else if (id == KILL_MARK) {
+                out.write("  <" + World.DIE_NAME + " " + Agent.ID_PARAM
+                        + "=\"" + x + "\" />\n");
+            } else {
+                throw new IOException("Bad trace record id " + id);
+            }
+        }
+        if (inState)
+            out.write("  </" + World.STATE_NAME + ">\n");
+        out.write("</" + World.XML_NAME + ">\n\n");
+        out.flush();
+    }
+
+    /**
+     * Present a trace as XML text, converting it on a background
+     * thread as the returned reader is consumed, so a trace can
+     * be replayed without converting it first.
+     *
+     * @param in open trace, positioned at its start
+     * @return reader that yields the equivalent XML log
+     * @throws IOException if the pipe cannot be set up
+     */
+    public static Reader openAsXml(final InputStream in) throws IOException {
+        final PipedWriter w = new PipedWriter();
+        PipedReader r = new PipedReader(w, LogSink.BUFFER_SIZE);
+        Thread t = new Thread("trace converter") {
+            public void run() {
+                try {
+                    toXml(new DataInputStream(in), new BufferedWriter(w));
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                } finally {
+                    try {
+                        w.close();
+                        in.close();
+                    } catch (IOException e) {
+                    }
+                }
+            }
+        };
+        t.setDaemon(true);
+        t.start();
+        return r;
+    }
+
+    /**
+     * SAX handler that reads an XML log and writes the
+     * equivalent trace.  Walls are collected until the
+     * first state is complete, since the trace header
+     * needs them together with the initial agents.
+     */
+    static class XmlToTrace extends DefaultHandler {
+        private BinaryTrace trace;
+        private Locator locator;
+        private int width = World.DEFAULT_WIDTH;
+        private int height = World.DEFAULT_HEIGHT;
+        private int cells = World.DEFAULT_CELLS;
+        private int replay = World.DEFAULT_WAIT;
+        private String mazefile = null;
+        private List<int[]> beams = new ArrayList<int[]>();
+        private List<int[]> poles = new ArrayList<int[]>();
+        /** Roster and records of the first state, held until it ends */
+        private List<String[]> firstAgents = new ArrayList<String[]>();
+        private List<int[]> firstRecords = new ArrayList<int[]>();
+        private int firstStep = 0;
+        private int states = 0;
+        private boolean inState = false;
+
+        XmlToTrace(DataOutputStream out) {
+            trace = new BinaryTrace(out);
+        }
+
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        private int[] record(Attributes atts) throws SAXException {
+            int[] r = new int[5];
+            r[0] = MazeReader.getIntParam(atts, Agent.ID_PARAM, 0, locator);
+            r[1] = MazeReader.getIntParam(atts, Agent.DynamicAgentAttributes.X_PARAM, 0, locator);
+            r[2] = MazeReader.getIntParam(atts, Agent.DynamicAgentAttributes.Y_PARAM, 0, locator);
+            r[3] = Agent.Heading.valueOf(MazeReader.getStringParam(atts,
+                    Agent.DynamicAgentAttributes.HEADING_PARAM, "NORTH", locator)).ordinal();
+            r[4] = MazeReader.getBoolParam(atts,
+                    Agent.DynamicAgentAttributes.BUMPED_PARAM, false, locator) ? 1 : 0;
+            return r;
+        }
+
+        private void writeHeader() throws IOException {
+            trace.writeHeader(width, height, cells, replay);
+            trace.writeMazeFile(mazefile);
+            if (mazefile == null) {
+                trace.writeWallCount(beams.size());
+                for (int[] b : beams)
+                    trace.writeWall(b[0], b[1]);
+                trace.writeWallCount(poles.size());
+                for (int[] p : poles)
+                    trace.writeWall(p[0], p[1]);
+            }
+            trace.writeRosterSize(firstAgents.size());
+            for (String[] a : firstAgents)
+                trace.writeRosterEntry(Integer.parseInt(a[0]), a[1],
+                        Boolean.parseBoolean(a[2]), Boolean.parseBoolean(a[3]));
+            trace.writeStep(firstStep);
+            for (int[] r : firstRecords)
+                trace.writeRecord(r[0], r[1], r[2], r[3], r[4] != 0);
+        }
+
+        public void startElement(String uri, String name, String qName, Attributes atts)
+                throws SAXException {
+            try {
+                if (World.XML_NAME.equals(name)) {
+                    width = MazeReader.getIntParam(atts, World.WIDTH_PARAM, width, locator);
+                    height = MazeReader.getIntParam(atts, World.HEIGHT_PARAM, height, locator);
+                    cells = MazeReader.getIntParam(atts, World.CELL_PARAM, cells, locator);
+                    mazefile = MazeReader.getStringParam(atts, World.MAZEFILE_PARAM, null, locator);
+                    // the trace may be written somewhere else, so give the full name
+                    if (mazefile != null)
+                        mazefile = new File(MazeReader.resolve(
+                                locator != null ? locator.getSystemId() : null, mazefile)).getAbsolutePath();
+                } else if (MazeReader.BEAM_NAME.equals(name) || MazeReader.POLE_NAME.equals(name)) {
+                    int[] w = new int[2];
+                    w[0] = MazeReader.getIntParam(atts, MazeReader.X_PARAM, 0, locator);
+                    w[1] = MazeReader.getIntParam(atts, MazeReader.Y_PARAM, 0, locator);
+                    (MazeReader.BEAM_NAME.equals(name) ? beams : poles).add(w);
+                } else if (World.STATE_NAME.equals(name)) {
+                    int step = MazeReader.getIntParam(atts, World.STEP_NAME, 0, locator);
+                    if (states == 0)
+                        firstStep = step;
+                    else
+                        trace.writeStep(step);
+                    inState = true;
+                } else if (World.WAIT_NAME.equals(name)) {
+                    int time = MazeReader.getIntParam(atts, World.WAIT_INTERVAL, World.DEFAULT_WAIT, locator);
+                    if (states == 1 && firstRecords != null) {
+                        replay = time;
+                        writeHeader();
+                        firstRecords = null;
+                    }
+                    trace.writeWait(time);
+                } else if (World.DIE_NAME.equals(name)) {
+                    trace.writeDeath(MazeReader.getIntParam(atts, Agent.ID_PARAM, 0, locator));
+                } else if (inState) {
+                    int[] r = record(atts);
+                    if (states == 0) {
+                        if (!Agent.UPDATE.equals(name)) {
+                            String[] a = new String[4];
+                            a[0] = Integer.toString(r[0]);
+                            a[1] = name;
+                            a[2] = MazeReader.getStringParam(atts,
+                                    Agent.FixedAgentAttributes.DEBUG_PARAM, "false", locator);
+                            a[3] = MazeReader.getStringParam(atts,
+                                    Agent.FixedAgentAttributes.EXTENSIONS_PARAM, "false", locator);
+                            firstAgents.add(a);
+                        }
+                        firstRecords.add(r);
+                    } else {
+                        trace.writeRecord(r[0], r[1], r[2], r[3], r[4] != 0);
+                    }
+                }
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+
+        public void endElement(String uri, String name, String qName) {
+            if (World.STATE_NAME.equals(name)) {
+                states++;
+                inState = false;
+            }
+        }
+
+        public void endDocument() throws SAXException {
+            try {
+                // A log with no waits still needs its header
+                if (firstRecords != null)
+                    writeHeader();
+                trace.out.flush();
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        }
+    }
+
+    /**
+     * Command-line interface: convert a trace to an XML log,
+     * or an XML log to a trace, depending on what the input is.
+     *
+     * @param args input file and output file
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage error: run as <program> <infile> <outfile> to convert between XML logs and binary traces.");
+            return;
+        }
+        try {
+            BufferedInputStream in = new BufferedInputStream(new FileInputStream(args[0]));
+            if (LogSource.isCompressed(in))
+                in = new BufferedInputStream(new GZIPInputStream(in));
+            // compresses the output too if its name ends in .gz
+            LogSink out = new LogSink(args[1], 0);
+            try {
+                if (isTrace(in)) {
+                    toXml(new DataInputStream(in), out.getWriter());
+                } else {
+                    XMLReader xr = XMLReaderFactory.createXMLReader();
+                    xr.setContentHandler(new XmlToTrace(out.getStream()));
+                    xr.parse(new InputSource(in));
+                }
+            } finally {
+                out.close();
+                in.close();
+            }
+        } catch (SAXException e) {
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
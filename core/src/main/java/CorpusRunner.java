@@ -0,0 +1,225 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Maze Assignment: CorpusRunner.java
+ *
+ * CorpusRunner evaluates agents against a whole collection
+ * of mazes in one go.  Each maze file is loaded into its own
+ * world and run headless, without logging, on a pool of
+ * worker threads sized to the machine, and the outcome of
+ * every run is printed as one table.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class CorpusRunner {
+
+    /** Suffix of the maze files picked up from a directory */
+    static final String MAZE_SUFFIX = ".xml";
+
+    /** Option introducing a step limit on the command line */
+    static final String STEPS_OPTION = "-steps";
+
+    /**
+     * Outcome of running the world in one maze file
+     */
+    static class Result {
+        /** Maze file the world came from */
+        String maze;
+        /** Kinds of agent in the world when it started */
+        String agent;
+        /** Steps the world ran */
+        int steps;
+        /** Whether an agent got out */
+        boolean escaped;
+        /** Whether the run was stopped because it would repeat forever */
+        boolean trapped;
+        /** Moves stopped by walls */
+        int bumps;
+        /** Milliseconds taken to load and run the world */
+        double millis;
+        /** Why the maze could not be run, or null if it was */
+        String error;
+    }
+
+    /**
+     * Load and run the world in a maze file.
+     *
+     * @param file maze file
+     * @param maxSteps most steps to run before giving up
+     * @return what happened
+     */
+    public static Result evaluate(String file, int maxSteps) {
+        Result r = new Result();
+        r.maze = file;
+        long start = System.nanoTime();
+        try {
+            World w = HeadlessSimulation.load(file);
+            if (w == null) {
+                r.error = "no world specified";
+            } else if (!w.isRunnable()) {
+                r.error = "world is not runnable";
+            } else {
+                w.setLogfile(null);
+                r.agent = agentKinds(w);
+                r.steps = HeadlessSimulation.run(w, maxSteps);
+                r.escaped = w.hasEscaped();
+                r.trapped = w.isTrapped();
+                r.bumps = w.getBumpCount();
+            }
+        } catch (SAXException e) {
+            r.error = e.getMessage();
+        } catch (IOException e) {
+            r.error = e.getMessage();
+        }
+        r.millis = (System.nanoTime() - start) / 1e6;
+        return r;
+    }
+
+    /**
+     * Name the kinds of agent in a world, as they are
+     * written in maze files.
+     */
+    private static String agentKinds(World w) {
+        WorldSnapshot s = w.snapshot(0);
+        Set<String> kinds = new LinkedHashSet<String>();
+        for (int i = 0; i < s.size(); i++)
+            kinds.add(s.getAgent(i).getXmlName());
+        if (kinds.isEmpty())
+            return "-";
+        StringBuilder b = new StringBuilder();
+        for (String k : kinds) {
+            if (b.length() > 0)
+                b.append('+');
+            b.append(k);
+        }
+        return b.toString();
+    }
+
+    /**
+     * Run every maze in parallel, one world per task.
+     *
+     * @param files maze files to run
+     * @param maxSteps most steps to run each world
+     * @return the results, in the same order as the files
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static List<Result> evaluateAll(List<String> files, final int maxSteps)
+            throws InterruptedException {
+        int threads = Math.max(1, Math.min(files.size(),
+                Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Result>> work = new ArrayList<Callable<Result>>(files.size());
+            for (final String f : files) {
+                work.add(new Callable<Result>() {
+                    public Result call() {
+                        return evaluate(f, maxSteps);
+                    }
+                });
+            }
+            List<Result> results = new ArrayList<Result>(files.size());
+            for (Future<Result> f : pool.invokeAll(work)) {
+                try {
+                    results.add(f.get());
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Gather maze files from the command line, replacing each
+     * directory with the maze files in it, in name order.
+     */
+    private static List<String> collect(List<String> names) {
+        List<String> files = new ArrayList<String>();
+        for (String n : names) {
+            File f = new File(n);
+            if (f.isDirectory()) {
+                String[] inside = f.list();
+                Arrays.sort(inside);
+                for (String m : inside) {
+                    if (m.endsWith(MAZE_SUFFIX))
+                        files.add(new File(f, m).getPath());
+                }
+            } else {
+                files.add(n);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Command-line interface to corpus evaluation.
+     *
+     * @param args array of strings specified on the
+     *             command line; maze files and directories
+     *             of maze files, optionally preceded by
+     *             -steps and a step limit
+     */
+    public static void main(String[] args) {
+        List<String> names = new ArrayList<String>(Arrays.asList(args));
+        int maxSteps = HeadlessSimulation.DEFAULT_MAX_STEPS;
+        if (names.size() >= 2 && names.get(0).equals(STEPS_OPTION)) {
+            try {
+                maxSteps = Integer.parseInt(names.get(1));
+            } catch (NumberFormatException e) {
+                System.err.println("Bad step limit " + names.get(1));
+                return;
+            }
+            names = names.subList(2, names.size());
+        }
+        if (names.isEmpty()) {
+            System.err.println("Usage error: run as <program> [-steps <maxsteps>] <mazefile|mazedir>... to evaluate a set of XML world specs.");
+            return;
+        }
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        List<String> files = collect(names);
+        long start = System.nanoTime();
+        List<Result> results;
+        try {
+            results = evaluateAll(files, maxSteps);
+        } catch (InterruptedException e) {
+            return;
+        }
+        double total = (System.nanoTime() - start) / 1e6;
+
+        int width = "maze".length();
+        for (String f : files)
+            width = Math.max(width, f.length());
+        String maze = "%-" + width + "s";
+        System.out.println(String.format(maze + " %-10s %8s %-7s %-7s %7s %9s",
+                "maze", "agent", "steps", "escaped", "trapped", "bumps", "ms"));
+        for (Result r : results) {
+            if (r.error != null) {
+                System.out.println(String.format(maze + " %s", r.maze, r.error));
+            } else {
+                System.out.println(String.format(maze + " %-10s %8d %-7s %-7s %7d %9.1f",
+                        r.maze, r.agent, r.steps, r.escaped ? "yes" : "no",
+                        r.trapped ? "yes" : "no", r.bumps, r.millis));
+            }
+        }
+        System.out.println(String.format("%d mazes in %.1f ms", results.size(), total));
+    }
+}
@@ -1,7 +1,5 @@
-import java.awt.Graphics;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.xml.sax.Attributes;
@@ -30,12 +28,12 @@ public class Follower extends Agent {
 	/** Size in display */
 	static final int FOLLOWER_SIZE = 15;
 
-	/** Record that allows XML files to set wall-follower default attributes */
-	static FixedAgentAttributes defaultFixedAgentAttributes = new Agent.FixedAgentAttributes(
+	/** Starting point for each world's record of wall-follower default attributes */
+	static final FixedAgentAttributes defaultFixedAgentAttributes = new Agent.FixedAgentAttributes(
 			false, false);
 
-	/** Record that allows XML files to set wall-follower default state */
-	static DynamicAgentAttributes defaultDynamicAgentAttributes = new Agent.DynamicAgentAttributes(
+	/** Starting point for each world's record of wall-follower default state */
+	static final DynamicAgentAttributes defaultDynamicAgentAttributes = new Agent.DynamicAgentAttributes(
 			0, 0, Agent.Heading.EAST, false, null);
 
 	/**
@@ -61,9 +59,18 @@ public class Follower extends Agent {
 			throws SAXException {
 		myWorld = w;
 		this.id = id;
-		form = new FixedAgentAttributes(atts, defaultFixedAgentAttributes, loc);
+		AgentDefaults defaults = w.getAgentDefaults();
+		form = new FixedAgentAttributes(atts, defaults.getFixed(XML_NAME), loc);
 		status = new DynamicAgentAttributes(atts,
-				defaultDynamicAgentAttributes, loc);
+				defaults.getDynamic(XML_NAME), loc);
+	}
+
+	/**
+	 * @return the XML element tag for this kind of agent
+	 */
+	@Override
+	public String getXmlName() {
+		return XML_NAME;
 	}
 
 	/**
@@ -86,17 +93,18 @@ public class Follower extends Agent {
 	 * Draw a wall-follower as a solid triangle pointing in the direction of the
 	 * agent's heading.
 	 * 
-	 * @param g object to control drawing mechanism
+	 * @param c where to draw
+	 * @param s position and heading to draw the agent at
 	 * 
-	 * @see Agent#draw(java.awt.Graphics)
+	 * @see Agent#draw(AgentCanvas, Agent.DynamicAgentAttributes)
 	 */
 	@Override
-	public void draw(Graphics g) {
+	public void draw(AgentCanvas c, DynamicAgentAttributes s) {
 		int[] xpoints = new int[3];
 		int[] ypoints = new int[3];
 
 		double pointAngle = 0;
-		switch (status.heading) {
+		switch (s.heading) {
 		case NORTH:
 			pointAngle = -Math.PI / 2;
 			break;
@@ -112,32 +120,41 @@ public class Follower extends Agent {
 		}
 		double baseAngle = pointAngle - Math.PI / 2;
 
-		double s = FOLLOWER_SIZE;
-		int baseOffsetX = (int) Math.round(2 * s * Math.cos(baseAngle) / 3);
-		int baseOffsetY = (int) Math.round(2 * s * Math.sin(baseAngle) / 3);
+		double size = FOLLOWER_SIZE;
+		int baseOffsetX = (int) Math.round(2 * size * Math.cos(baseAngle) / 3);
+		int baseOffsetY = (int) Math.round(2 * size * Math.sin(baseAngle) / 3);
 
-		int x0 = ((int) Math.round(0 - baseOffsetX / 2 - s
+		int x0 = ((int) Math.round(0 - baseOffsetX / 2 - size
 				* Math.cos(pointAngle) / 3));
-		int y0 = ((int) Math.round(0 - baseOffsetY / 2 - s
+		int y0 = ((int) Math.round(0 - baseOffsetY / 2 - size
 				* Math.sin(pointAngle) / 3));
 
 		xpoints[0] = x0;
 		xpoints[1] = x0 + baseOffsetX;
 		xpoints[2] = x0 + baseOffsetX / 2
-				+ (int) Math.round(s * Math.cos(pointAngle));
+				+ (int) Math.round(size * Math.cos(pointAngle));
 
 		ypoints[0] = y0;
 		ypoints[1] = y0 + baseOffsetY;
 		ypoints[2] = y0 + baseOffsetY / 2
-				+ (int) Math.round(s * Math.sin(pointAngle));
+				+ (int) Math.round(size * Math.sin(pointAngle));
 
-		myWorld.fillPolygon(status.locX, status.locY, xpoints, ypoints, 3, g);
+		c.fillPolygon(s.locX, s.locY, xpoints, ypoints, 3);
 
 	}
 
 	// TODO: Include any new instance variables here...
 	boolean foundWall = false;
 
+	/**
+	 * @return 1 once the follower has found a wall to follow, 0 before
+	 * @see Agent#stateHash()
+	 */
+	@Override
+	public long stateHash() {
+		return foundWall ? 1 : 0;
+	}
+
 	/**
 	 * Update agent's todo list.
 	 * 
@@ -146,53 +163,65 @@ public class Follower extends Agent {
 	 */
 	@Override
 	public void deliberate(List<Percept> ps) {
-		boolean left = isBlocked(ps, Direction.LEFT);
-		boolean right = isBlocked(ps, Direction.RIGHT);
-		boolean ahead = isBlocked(ps, Direction.AHEAD);
-		boolean behind = isBlocked(ps, Direction.BEHIND);
+		deliberate(blockedMask(ps));
+	}
+
+	/**
+	 * Update agent's todo list.
+	 * 
+	 * @param blocked
+	 *            Directions in which there is a wall next to the agent
+	 * @see Agent#deliberate(int)
+	 */
+	@Override
+	public void deliberate(int blocked) {
+		boolean left = isBlocked(blocked, Direction.LEFT);
+		boolean right = isBlocked(blocked, Direction.RIGHT);
+		boolean ahead = isBlocked(blocked, Direction.AHEAD);
+		boolean behind = isBlocked(blocked, Direction.BEHIND);
 
 		// TODO: Include any new code here...
-		todo = new LinkedList<Intention>();
+		todo.clear();
 		
 		if (!foundWall) {
 			if (ahead) {
 				foundWall = true;
-				todo.add(new Intention(Intention.ActionType.TURN_RIGHT));
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.TURN_RIGHT));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 				return;
 			} else if (left) {
 				foundWall = true;
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 				return;
 			} else if (right) {
 				foundWall = true;
-				todo.add(new Intention(Intention.ActionType.TURN_BACK));
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.TURN_BACK));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 				return;
 			} else if (behind) {
 				foundWall = true;
-				todo.add(new Intention(Intention.ActionType.TURN_LEFT));
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.TURN_LEFT));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 				return;
 			} else {
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 				return;
 			}
 		}
 
 		if (foundWall) {
 			if (left && !ahead) {
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 			}
 
 			if (left && ahead) {
-				todo.add(new Intention(Intention.ActionType.TURN_RIGHT));
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.TURN_RIGHT));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 			}
 
 			if (!left) {
-				todo.add(new Intention(Intention.ActionType.TURN_LEFT));
-				todo.add(new Intention(Intention.ActionType.STEP));
+				todo.add(Intention.of(Intention.ActionType.TURN_LEFT));
+				todo.add(Intention.of(Intention.ActionType.STEP));
 			}
 		}
 
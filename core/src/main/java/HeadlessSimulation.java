@@ -0,0 +1,145 @@
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+/**
+ * Maze Assignment: HeadlessSimulation.java
+ *
+ * HeadlessSimulation runs a test scenario without creating
+ * any window, as fast as the simulation can go, for batch
+ * evaluation of agents on machines with no display.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class HeadlessSimulation {
+
+    /** Step limit used when none is given on the command line */
+    static final int DEFAULT_MAX_STEPS = 100000;
+
+    /**
+     * Read the world described in an XML specification,
+     * without attaching it to any display.  Unless the spec
+     * says otherwise, the world stops once it repeats a state,
+     * since nobody is watching it go round.
+     *
+     * @param file name of the XML world specification
+     * @return the world described in the file, or null if it has none
+     * @throws SAXException if the file is not a valid world spec
+     * @throws IOException if the file cannot be read
+     */
+    public static World load(String file) throws SAXException, IOException {
+        XMLReader xr = XMLReaderFactory.createXMLReader();
+        MazeReader handler = new MazeReader(null);
+        handler.setStopCycles(true);
+        xr.setContentHandler(handler);
+        xr.setErrorHandler(handler);
+
+        InputSource source = LogSource.open(file);
+        try {
+            xr.parse(source);
+        } finally {
+            source.getCharacterStream().close();
+        }
+        return handler.getWorld();
+    }
+
+    /**
+     * Shutdown hook that makes sure the log of a world
+     * interrupted by Control-C remains valid XML.
+     */
+    static class Cleanup extends Thread {
+        private final World w;
+
+        Cleanup(World w) {
+            this.w = w;
+        }
+
+        public void run() {
+            w.finishLogging();
+        }
+    }
+
+    /**
+     * Step the world with no delays and no repainting until
+     * it stops being runnable or the step limit is reached.
+     *
+     * @param w world to simulate
+     * @param maxSteps most steps to run before giving up
+     * @return number of steps the world has run
+     */
+    public static int run(World w, int maxSteps) {
+        Cleanup hook = new Cleanup(w);
+        Runtime.getRuntime().addShutdownHook(hook);
+        w.startLogging();
+        try {
+            while (w.isRunnable() && w.getStepCount() < maxSteps) {
+                w.stepWorld();
+            }
+        } finally {
+            w.finishLogging();
+            try {
+                Runtime.getRuntime().removeShutdownHook(hook);
+            } catch (IllegalStateException e) {
+                // already shutting down, the hook will run anyway
+            }
+        }
+        return w.getStepCount();
+    }
+
+    /**
+     * Command-line interface to headless simulation.
+     *
+     * @param args array of strings specified on the
+     *             command line; should specify a
+     *             single XML specification of a world
+     *             and optionally a step limit
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage error: run as <program> <specfile> [maxsteps] for a single XML world spec.");
+            return;
+        }
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        int maxSteps = DEFAULT_MAX_STEPS;
+        if (args.length == 2) {
+            try {
+                maxSteps = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("Bad step limit " + args[1]);
+                return;
+            }
+        }
+        try {
+            World w = load(args[0]);
+            if (w == null) {
+                System.err.println(args[0] + ": no world specified");
+                return;
+            }
+            if (!w.isRunnable()) {
+                System.err.println(args[0] + ": world is not runnable");
+                return;
+            }
+
+            int steps = run(w, maxSteps);
+            if (w.hasEscaped())
+                System.out.println(args[0] + ": escaped in " + steps + " steps");
+            else if (w.isTrapped())
+                System.out.println(args[0] + ": trapped, repeating itself after " + steps + " steps");
+            else
+                System.out.println(args[0] + ": no escape after " + steps + " steps");
+
+        } catch (SAXException e) {
+            System.err.println(e.getMessage());
+        } catch (FileNotFoundException e) {
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
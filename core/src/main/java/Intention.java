@@ -32,12 +32,34 @@ public class Intention {
         }
     }
 
+    /**
+     * Shared intention for each action type, indexed by ordinal;
+     * intentions are immutable, so agents need not create new ones.
+     */
+    private static final Intention[] shared;
+    static {
+        ActionType[] ts = ActionType.values();
+        shared = new Intention[ts.length];
+        for (ActionType t : ts)
+            shared[t.ordinal()] = new Intention(t);
+    }
+
+    /**
+     * Get the shared intention to perform an action
+     * 
+     * @param type what to do
+     * @return an intention of that type
+     */
+    public static Intention of(ActionType type) {
+        return shared[type.ordinal()];
+    }
+
     /**
      * Instance members
      */
     
     /** what kind of thing does this intention describe */
-    private ActionType type;
+    private final ActionType type;
  
     /**
      * Constructor
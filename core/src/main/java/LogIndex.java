@@ -0,0 +1,258 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+/**
+ * Maze Assignment: LogIndex.java
+ *
+ * Sidecar index for random access into XML logs.
+ *
+ * When a world is given a keyframe interval, then besides
+ * the first state it writes a full description of every
+ * agent every few steps (a keyframe), and records in the
+ * index file the byte offset where each keyframe starts.
+ * Logs are not indexed unless asked for.  To reconstruct
+ * step N, seek reads the log header, jumps straight to the
+ * last keyframe at or before N, and applies only the
+ * updates between the two.
+ *
+ * The index file is a sequence of (int step, long offset)
+ * pairs; offsets count uncompressed bytes, so compressed logs
+ * can be indexed too, though reaching an offset in them means
+ * decompressing everything before it.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class LogIndex {
+
+    /** Appended to the log file name to give the index file name */
+    static final String INDEX_SUFFIX = ".idx";
+
+    /** Steps between keyframes when nothing is specified: none, and no index */
+    static final int DEFAULT_KEYFRAME_INTERVAL = 0;
+
+    /** Where index entries are written */
+    private DataOutputStream out;
+
+    /**
+     * Constructor: start the index for a log that is about to be written
+     *
+     * @param logfile name of the log being indexed
+     * @throws IOException if the index file cannot be created
+     */
+    public LogIndex(String logfile) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(logfile + INDEX_SUFFIX, false)));
+    }
+
+    /**
+     * Record that the keyframe for a step starts at an offset in the log.
+     *
+     * @param step step that the keyframe describes
+     * @param offset position of the keyframe's state element in the log
+     * @throws IOException if writing fails
+     */
+    public void add(int step, long offset) throws IOException {
+        out.writeInt(step);
+        out.writeLong(offset);
+    }
+
+    /**
+     * Finish the index file.
+     *
+     * @throws IOException if writing fails
+     */
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Read the index of a log.
+     *
+     * @param logfile name of the indexed log
+     * @return pairs of step and offset, in the order written
+     * @throws IOException if the index cannot be read
+     */
+    public static List<long[]> load(String logfile) throws IOException {
+        List<long[]> entries = new ArrayList<long[]>();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(logfile + INDEX_SUFFIX)));
+        try {
+            while (true) {
+                long[] e = new long[2];
+                try {
+                    e[0] = in.readInt();
+                } catch (EOFException eof) {
+                    break;
+                }
+                e[1] = in.readLong();
+                entries.add(e);
+            }
+        } finally {
+            in.close();
+        }
+        return entries;
+    }
+
+    /**
+     * Open the uncompressed content of a log.
+     */
+    private static InputStream openContent(String logfile) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new FileInputStream(logfile),
+                LogSink.BUFFER_SIZE);
+        if (LogSource.isCompressed(in))
+            return new BufferedInputStream(new GZIPInputStream(in, LogSink.BUFFER_SIZE),
+                    LogSink.BUFFER_SIZE);
+        return in;
+    }
+
+    /**
+     * Skip exactly n bytes of a stream.
+     */
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long k = in.skip(n);
+            if (k <= 0) {
+                if (in.read() < 0)
+                    throw new EOFException("Log is shorter than its index");
+                k = 1;
+            }
+            n -= k;
+        }
+    }
+
+    /**
+     * Reconstruct the world recorded in a log as it was at the
+     * end of a given step, using the log's index to avoid
+     * reading the steps before the nearest keyframe.
+     *
+     * @param logfile name of an indexed XML log
+     * @param step step to reconstruct
+     * @return world holding the agents as they were at that step,
+     *         not attached to any display
+     * @throws IOException if the log or its index cannot be read
+     * @throws SAXException if the log is not valid
+     */
+    public static World seek(String logfile, int step) throws IOException, SAXException {
+        List<long[]> entries = load(logfile);
+        if (entries.isEmpty())
+            throw new FileNotFoundException(logfile + INDEX_SUFFIX + " is empty");
+
+        // The first entry marks the end of the header
+        long headerEnd = entries.get(0)[1];
+        long offset = headerEnd;
+        for (long[] e : entries) {
+            if (e[0] <= step)
+                offset = e[1];
+        }
+
+        InputStream header = openContent(logfile);
+        InputStream body = openContent(logfile);
+        InputStream limited = new LimitedStream(header, headerEnd);
+        skipFully(body, offset);
+
+        XMLReader xr = XMLReaderFactory.createXMLReader();
+        MazeReader handler = new MazeReader(null);
+        handler.setLastStep(step);
+        handler.setPaced(false);
+        xr.setContentHandler(handler);
+        xr.setErrorHandler(handler);
+        InputStream in = new SequenceInputStream(limited, body);
+        try {
+            InputSource source = new InputSource(new InputStreamReader(in));
+            source.setSystemId(logfile);
+            xr.parse(source);
+        } catch (MazeReader.StopParsing e) {
+            // reached the requested step
+        } finally {
+            in.close();
+            header.close();
+        }
+        return handler.getWorld();
+    }
+
+    /**
+     * Stream that yields only the first bytes of another stream.
+     */
+    static class LimitedStream extends InputStream {
+        private InputStream in;
+        private long left;
+
+        LimitedStream(InputStream in, long limit) {
+            this.in = in;
+            left = limit;
+        }
+
+        public int read() throws IOException {
+            if (left <= 0)
+                return -1;
+            int b = in.read();
+            if (b >= 0)
+                left--;
+            return b;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (left <= 0)
+                return -1;
+            int n = in.read(b, off, (int) Math.min(len, left));
+            if (n > 0)
+                left -= n;
+            return n;
+        }
+
+        public void close() {
+            // the underlying stream is closed by its owner
+        }
+    }
+
+    /**
+     * Command-line interface: print where every agent was
+     * at a given step of an indexed log.
+     *
+     * @param args log file and step number
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage error: run as <program> <logfile> <step> to look up a step of an indexed log.");
+            return;
+        }
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        try {
+            World w = seek(args[0], Integer.parseInt(args[1]));
+            System.out.println("step " + w.getStepCount());
+            WorldSnapshot s = w.snapshot(0);
+            for (int i = 0; i < s.size(); i++) {
+                Agent.DynamicAgentAttributes a = s.getState(i);
+                System.out.println("agent " + s.getAgent(i).getId() + " x=" + a.locX
+                        + " y=" + a.locY + " heading=" + a.heading + " bumped=" + a.bumped);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Bad step number " + args[1]);
+        } catch (SAXException e) {
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,174 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maze Assignment: LogSink.java
+ *
+ * Destination for the history a world records as it runs.
+ * The log file is opened once when logging starts and kept
+ * open for the life of the world; output is buffered and
+ * only pushed to disk every few records, so that logging
+ * does not cost a file open and close on each step.
+ *
+ * A sink carries either XML text, through getWriter, or
+ * binary trace records, through getStream, but not both.
+ * If the file name ends in .gz the output is compressed
+ * with gzip as it is written; LogSource undoes this on
+ * replay.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class LogSink {
+
+    /** Number of records written between flushes when nothing is specified */
+    static final int DEFAULT_FLUSH_INTERVAL = 100;
+
+    /** Size of the write buffer in bytes */
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /** Log file name ending that asks for compressed output */
+    static final String GZIP_SUFFIX = ".gz";
+
+    /** Open channel to the log file, null once closed */
+    private DataOutputStream stream;
+
+    /** Counts the bytes of log content written so far */
+    private CountingStream counter;
+
+    /** Text view of the log file, created when first asked for */
+    private BufferedWriter out;
+
+    /** How many records to write before flushing, 0 means only on close */
+    private int flushInterval;
+
+    /** Records written since the last flush */
+    private int pending;
+
+    /**
+     * Constructor: open the log file, replacing anything already there.
+     *
+     * @param file name of the log file
+     * @param interval number of records between flushes, 0 to flush only on close
+     * @throws IOException if the file cannot be opened
+     */
+    public LogSink(String file, int interval) throws IOException {
+        OutputStream os = new FileOutputStream(file, false);
+        if (file.endsWith(GZIP_SUFFIX)) {
+            // sync flush so each batch of records is readable on disk
+            os = new GZIPOutputStream(os, BUFFER_SIZE, true);
+        }
+        counter = new CountingStream(new BufferedOutputStream(os, BUFFER_SIZE));
+        stream = new DataOutputStream(counter);
+        out = null;
+        flushInterval = interval;
+        pending = 0;
+    }
+
+    /**
+     * @return the open channel that XML log records are written to
+     */
+    public BufferedWriter getWriter() {
+        if (out == null && stream != null) {
+            out = new BufferedWriter(new OutputStreamWriter(stream), BUFFER_SIZE);
+        }
+        return out;
+    }
+
+    /**
+     * @return the open channel that binary log records are written to
+     */
+    public DataOutputStream getStream() {
+        return stream;
+    }
+
+    /**
+     * Find where the next record will start in the log content,
+     * counting uncompressed bytes.  Text written so far is
+     * flushed so that the position is exact.
+     *
+     * @return offset in bytes from the start of the log
+     * @throws IOException if writing fails
+     */
+    public long position() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+        return counter.count;
+    }
+
+    /**
+     * Note that a complete record has been written, and
+     * push buffered output to disk if enough have accumulated.
+     *
+     * @throws IOException if writing fails
+     */
+    public void endRecord() throws IOException {
+        pending++;
+        if (flushInterval > 0 && pending >= flushInterval) {
+            flush();
+        }
+    }
+
+    /**
+     * Push any buffered output to disk.
+     *
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        } else if (stream != null) {
+            stream.flush();
+        }
+        pending = 0;
+    }
+
+    /**
+     * Flush and close the log file.  Safe to call more than once.
+     *
+     * @throws IOException if writing fails
+     */
+    public void close() throws IOException {
+        if (stream != null) {
+            DataOutputStream s = stream;
+            stream = null;
+            if (out != null) {
+                out.close();
+                out = null;
+            } else {
+                s.close();
+            }
+        }
+    }
+
+    /**
+     * Pass-through stream that keeps track of
+     * how many bytes have gone through it.
+     */
+    static class CountingStream extends FilterOutputStream {
+        /** Bytes written so far */
+        long count = 0;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.zip.GZIPInputStream;
+
+import org.xml.sax.InputSource;
+
+/**
+ * Maze Assignment: LogSource.java
+ *
+ * Opens world specifications and recorded logs for reading,
+ * whatever form they were written in: plain XML, a binary
+ * trace, or either of those compressed with gzip.  The
+ * content is decompressed and converted as it is read, so
+ * a log never has to fit in memory.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class LogSource {
+
+    /** First two bytes of every gzip stream */
+    static final int GZIP_MAGIC = 0x1f8b;
+
+    /**
+     * Check whether a stream is gzip compressed,
+     * without consuming any of it.
+     *
+     * @param in stream positioned at the start of a file
+     * @return true if the stream starts with the gzip magic number
+     * @throws IOException if reading fails
+     */
+    public static boolean isCompressed(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int b0 = in.read();
+        int b1 = in.read();
+        in.reset();
+        return b0 >= 0 && b1 >= 0 && ((b0 << 8) | b1) == GZIP_MAGIC;
+    }
+
+    /**
+     * Open a file for the SAX parser, decompressing it and
+     * converting it from a binary trace as needed.
+     *
+     * @param file name of the world specification or log
+     * @return XML source that the file's contents can be parsed from
+     * @throws IOException if the file cannot be opened or read
+     */
+    public static InputSource open(String file) throws IOException {
+        InputStream raw = new FileInputStream(file);
+        BufferedInputStream in = new BufferedInputStream(raw, LogSink.BUFFER_SIZE);
+        if (isCompressed(in)) {
+            in = new BufferedInputStream(new GZIPInputStream(in, LogSink.BUFFER_SIZE),
+                    LogSink.BUFFER_SIZE);
+        }
+        InputSource source;
+        if (BinaryTrace.isTrace(in))
+            source = new InputSource(BinaryTrace.openAsXml(in));
+        else
+            source = new InputSource(new InputStreamReader(in));
+        source.setSystemId(file);
+        return source;
+    }
+}
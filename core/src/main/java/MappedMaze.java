@@ -0,0 +1,147 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Maze Assignment: MappedMaze.java
+ *
+ * The walls of a maze file, mapped into memory and read in
+ * place.  Opening a maze takes the same time whatever its
+ * size: nothing is parsed or copied, and the operating system
+ * pages in the parts of the file that are actually looked at.
+ * Files too big for one mapping are mapped in several pieces,
+ * each a whole number of rows.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ * @see MazeFile
+ */
+public class MappedMaze {
+
+    /** Largest number of bytes in one mapping */
+    private static final long MAX_CHUNK = Integer.MAX_VALUE;
+
+    /** Full name of the maze file */
+    private final String path;
+
+    /** Number of cells along each side */
+    private final int cells;
+
+    /** Size in bytes of each row */
+    private final int rowBytes;
+
+    /** Number of rows in each mapping */
+    private final int rowsPerChunk;
+
+    /** The rows of the file, rowsPerChunk to a mapping */
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * Constructor: map the rows of an open maze file
+     */
+    private MappedMaze(String path, int cells, FileChannel channel) throws IOException {
+        this.path = path;
+        this.cells = cells;
+        rowBytes = MazeFile.rowBytes(cells);
+        rowsPerChunk = (int) Math.min(cells + 1L, MAX_CHUNK / rowBytes);
+        int n = (cells + rowsPerChunk) / rowsPerChunk;
+        chunks = new MappedByteBuffer[n];
+        for (int i = 0; i < n; i++) {
+            long first = (long) i * rowsPerChunk;
+            long rows = Math.min(rowsPerChunk, cells + 1L - first);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                    MazeFile.HEADER_SIZE + first * rowBytes, rows * rowBytes);
+        }
+    }
+
+    /**
+     * Open a maze file
+     *
+     * @param path name of the file, relative to the working directory
+     * @return the maze
+     * @throws IOException if the file cannot be read or is not a maze file
+     */
+    public static MappedMaze open(String path) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(new File(path), "r");
+        try {
+            int cells = MazeFile.readHeader(file);
+            if (file.length() != MazeFile.fileSize(cells))
+                throw new IOException("Maze file " + path + " is the wrong size for "
+                        + cells + " x " + cells + " cells");
+            // mappings stay valid once the file is closed
+            return new MappedMaze(new File(path).getAbsolutePath(), cells, file.getChannel());
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * @return full name of the maze file, which can be opened
+     *         from any directory
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return number of cells along each side
+     */
+    public int getDimension() {
+        return cells;
+    }
+
+    /**
+     * Read one bit of one row
+     */
+    private boolean get(int y, int bit) {
+        int offset = (y % rowsPerChunk) * rowBytes + (bit >>> 3);
+        return (chunks[y / rowsPerChunk].get(offset) & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * Count the walls in the file
+     */
+    private long count(boolean poles) {
+        long n = 0;
+        for (int y = 0; y <= cells; y++) {
+            int from = poles ? MazeFile.poleBit(cells, 0) : MazeFile.beamBit(0);
+            int to = poles ? MazeFile.poleBit(cells, cells) : MazeFile.beamBit(cells - 1);
+            for (int b = from; b <= to; b++)
+                if (get(y, b))
+                    n++;
+        }
+        return n;
+    }
+
+    /**
+     * @return the horizontal walls, cells x (cells + 1)
+     */
+    public WallGrid getBeams() {
+        return new WallGrid() {
+            public boolean get(int x, int y) {
+                return MappedMaze.this.get(y, MazeFile.beamBit(x));
+            }
+
+            public long count() {
+                return MappedMaze.this.count(false);
+            }
+        };
+    }
+
+    /**
+     * @return the vertical walls, (cells + 1) x cells
+     */
+    public WallGrid getPoles() {
+        return new WallGrid() {
+            public boolean get(int x, int y) {
+                return MappedMaze.this.get(y, MazeFile.poleBit(cells, x));
+            }
+
+            public long count() {
+                return MappedMaze.this.count(true);
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Maze Assignment: MazeFile.java
+ *
+ * Compact binary alternative to the walls of an XML world
+ * spec, laid out one row of the maze after another so that
+ * mazes can be written a row at a time and any row can be
+ * found without reading the ones before it.
+ *
+ * A maze file starts with a header of four ints: the magic
+ * number, the version, the number of cells along each side
+ * and the size in bytes of each row.  After that come cells
+ * + 1 rows of the same size.  In row y, bit x, for x below
+ * cells, is set if there is a beam at (x, y), and bit
+ * cells + x, for x up to cells, is set if there is a pole
+ * at (x, y); the last row only has beams.  Bit b of a row
+ * is bit b % 8 of byte b / 8.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class MazeFile {
+
+    /** First four bytes of every maze file: "MZWL" */
+    static final int MAGIC = 0x4D5A574C;
+
+    /** Version of the row layout */
+    static final int VERSION = 1;
+
+    /** Size in bytes of the header before the first row */
+    static final int HEADER_SIZE = 16;
+
+    /** File name suffix for maze files */
+    static final String SUFFIX = ".maze";
+
+    /**
+     * Size of each row of a maze
+     *
+     * @param cells number of cells along each side
+     * @return bytes in each row
+     */
+    public static int rowBytes(int cells) {
+        return (int) ((2L * cells + 1 + 7) >>> 3);
+    }
+
+    /**
+     * Size of a whole maze file
+     *
+     * @param cells number of cells along each side
+     * @return bytes in the file
+     */
+    public static long fileSize(int cells) {
+        return HEADER_SIZE + (cells + 1L) * rowBytes(cells);
+    }
+
+    /**
+     * Write the header that begins a maze file
+     *
+     * @param out where to write
+     * @param cells number of cells along each side
+     * @throws IOException if writing fails
+     */
+    public static void writeHeader(DataOutput out, int cells) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(cells);
+        out.writeInt(rowBytes(cells));
+    }
+
+    /**
+     * Read and check the header that begins a maze file
+     *
+     * @param in where to read
+     * @return number of cells along each side
+     * @throws IOException if reading fails or this is not a maze file
+     */
+    public static int readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a maze file");
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported maze file version " + version);
+        int cells = in.readInt();
+        if (cells < 1 || in.readInt() != rowBytes(cells))
+            throw new IOException("Corrupt maze file header");
+        return cells;
+    }
+
+    /**
+     * Position in a row of the bit for the beam at x
+     */
+    public static int beamBit(int x) {
+        return x;
+    }
+
+    /**
+     * Position in a row of the bit for the pole at x
+     */
+    public static int poleBit(int cells, int x) {
+        return cells + x;
+    }
+
+    /**
+     * Is a bit of a row set
+     *
+     * @param row bytes of the row
+     * @param bit position of the bit
+     * @return true if the wall is there
+     */
+    public static boolean get(byte[] row, int bit) {
+        return (row[bit >>> 3] & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * Set a bit of a row
+     *
+     * @param row bytes of the row
+     * @param bit position of the bit
+     */
+    public static void set(byte[] row, int bit) {
+        row[bit >>> 3] |= 1 << (bit & 7);
+    }
+}
@@ -0,0 +1,820 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Maze Assignment: MazeGenerator.java
+ *
+ * Builds random mazes of any size for testing how the
+ * simulation scales.  A maze starts with every wall in
+ * place and passages are carved by one of several
+ * algorithms, so corridor lengths and loops vary:
+ * the recursive backtracker makes long winding corridors,
+ * Kruskal's algorithm makes many short dead ends, and a
+ * braided maze is a backtracker maze with its dead ends
+ * knocked through into loops, and Eller's algorithm builds
+ * the maze one row at a time.  Finally one wall on the
+ * border is opened as the way out.  The same seed always
+ * gives the same maze.  The result can be written as an
+ * XML world spec or a maze file, or added straight to a
+ * world.
+ *
+ * Every algorithm takes time proportional to the number
+ * of cells.  Walls are kept as bits; the backtracker needs
+ * three more bits per cell and no stack, and Kruskal's
+ * algorithm needs one int per cell for its disjoint sets.
+ * Eller's algorithm only ever holds one row, so written
+ * straight to a maze file it needs memory proportional to
+ * the width of the maze, however many rows it has.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class MazeGenerator {
+
+    /** Ways of carving the passages of a maze */
+    static enum Algorithm {
+        /** Depth-first search: long corridors, few branches, no loops */
+        BACKTRACKER,
+        /** Random spanning tree by merging sets: short corridors, no loops */
+        KRUSKAL,
+        /** Backtracker with dead ends opened up: loops everywhere */
+        BRAIDED,
+        /** Row by row, joining sets of cells: short corridors, no loops */
+        ELLER
+    }
+
+    /**
+     * Where Eller's algorithm puts each row as it is finished
+     */
+    private interface RowSink {
+        /**
+         * @param y which row, 0 to cells
+         * @param row the row's walls, laid out as in a maze file
+         * @throws IOException if the row cannot be stored
+         */
+        void row(int y, byte[] row) throws IOException;
+    }
+
+    /** Kind of agent placed in the maze when none is given */
+    static final String DEFAULT_AGENT = Follower.XML_NAME;
+
+    /** Change in x for a step in each heading, by clockwise index */
+    private static final int[] DX = new int[WallMask.SIDES];
+
+    /** Change in y for a step in each heading, by clockwise index */
+    private static final int[] DY = new int[WallMask.SIDES];
+
+    static {
+        for (Agent.Heading h : Agent.Heading.values()) {
+            DX[h.clockwise] = h.dx;
+            DY[h.clockwise] = h.dy;
+        }
+    }
+
+    /** Number of cells along each side */
+    private final int cells;
+
+    /** How the passages are carved */
+    private final Algorithm algorithm;
+
+    /** Source of every random choice, seeded so mazes can be made again */
+    private final Random random;
+
+    /** Random bits not used yet by coin() */
+    private long coins;
+
+    /** Number of bits left in coins */
+    private int coinsLeft;
+
+    /** Fraction of dead ends a braided maze opens up */
+    private double braid;
+
+    /** Horizontal walls, cells x (cells + 1), null until generated */
+    private WallPlane beams;
+
+    /** Vertical walls, (cells + 1) x cells, null until generated */
+    private WallPlane poles;
+
+    /**
+     * Constructor: a generator for one maze
+     *
+     * @param cells number of cells along each side
+     * @param algorithm how to carve the passages
+     * @param seed seed for the random choices
+     */
+    public MazeGenerator(int cells, Algorithm algorithm, long seed) {
+        if (cells < 1)
+            throw new IllegalArgumentException("Maze must have at least one cell: " + cells);
+        this.cells = cells;
+        this.algorithm = algorithm;
+        random = new Random(seed);
+        coinsLeft = 0;
+        braid = 1;
+        beams = null;
+        poles = null;
+    }
+
+    /**
+     * Say how many dead ends a braided maze should open up
+     *
+     * @param b fraction between 0, for none, and 1, for all of them
+     */
+    public void setBraid(double b) {
+        braid = Math.max(0, Math.min(1, b));
+    }
+
+    /**
+     * @return number of cells along each side
+     */
+    public int getDimension() {
+        return cells;
+    }
+
+    /**
+     * Carve the maze, if that has not been done already
+     */
+    public void generate() {
+        if (beams != null)
+            return;
+        beams = new WallPlane(cells, cells + 1);
+        poles = new WallPlane(cells + 1, cells);
+        if (algorithm == Algorithm.ELLER) {
+            try {
+                eller(new RowSink() {
+                    public void row(int y, byte[] row) {
+                        for (int x = 0; x < cells; x++)
+                            if (MazeFile.get(row, MazeFile.beamBit(x)))
+                                beams.set(x, y);
+                        if (y < cells)
+                            for (int x = 0; x <= cells; x++)
+                                if (MazeFile.get(row, MazeFile.poleBit(cells, x)))
+                                    poles.set(x, y);
+                    }
+                });
+            } catch (IOException e) {
+                // storing rows in memory does no I/O
+            }
+            return;
+        }
+        for (int x = 0; x < cells; x++)
+            for (int y = 0; y <= cells; y++)
+                beams.set(x, y);
+        for (int x = 0; x <= cells; x++)
+            for (int y = 0; y < cells; y++)
+                poles.set(x, y);
+        switch (algorithm) {
+        case BACKTRACKER:
+            backtrack();
+            break;
+        case KRUSKAL:
+            kruskal();
+            break;
+        case BRAIDED:
+            backtrack();
+            openDeadEnds();
+            break;
+        }
+        openExit();
+    }
+
+    /**
+     * Is there a wall on one side of cell (x, y)
+     *
+     * @param x horizontal coordinate of the cell
+     * @param y vertical coordinate of the cell
+     * @param side clockwise index of the side
+     * @return true if the wall is there
+     */
+    boolean isWall(int x, int y, int side) {
+        switch (side) {
+        case 0:
+            return beams.get(x, y);
+        case 1:
+            return poles.get(x + 1, y);
+        case 2:
+            return beams.get(x, y + 1);
+        default:
+            return poles.get(x, y);
+        }
+    }
+
+    /**
+     * Take away the wall on one side of cell (x, y)
+     */
+    private void open(int x, int y, int side) {
+        switch (side) {
+        case 0:
+            beams.clear(x, y);
+            break;
+        case 1:
+            poles.clear(x + 1, y);
+            break;
+        case 2:
+            beams.clear(x, y + 1);
+            break;
+        default:
+            poles.clear(x, y);
+            break;
+        }
+    }
+
+    /**
+     * Is (x, y) a cell of the maze
+     */
+    private boolean inside(int x, int y) {
+        return x >= 0 && y >= 0 && x < cells && y < cells;
+    }
+
+    /**
+     * Depth-first search from a random cell, knocking through to
+     * a random unvisited neighbour until there is none, then
+     * backing up.  Instead of a stack, each cell records which
+     * way it was entered from, as two bits, so backing up
+     * follows those back towards the start.
+     */
+    private void backtrack() {
+        WallPlane visited = new WallPlane(cells, cells);
+        WallPlane fromLow = new WallPlane(cells, cells);
+        WallPlane fromHigh = new WallPlane(cells, cells);
+        int startX = random.nextInt(cells);
+        int startY = random.nextInt(cells);
+        int x = startX;
+        int y = startY;
+        visited.set(x, y);
+        int[] choices = new int[WallMask.SIDES];
+        while (true) {
+            int n = 0;
+            for (int side = 0; side < WallMask.SIDES; side++) {
+                int nx = x + DX[side];
+                int ny = y + DY[side];
+                if (inside(nx, ny) && !visited.get(nx, ny))
+                    choices[n++] = side;
+            }
+            if (n > 0) {
+                int side = choices[random.nextInt(n)];
+                open(x, y, side);
+                x += DX[side];
+                y += DY[side];
+                visited.set(x, y);
+                int back = (side + 2) & 3;
+                if ((back & 1) != 0)
+                    fromLow.set(x, y);
+                if ((back & 2) != 0)
+                    fromHigh.set(x, y);
+            } else if (x == startX && y == startY) {
+                return;
+            } else {
+                int back = (fromLow.get(x, y) ? 1 : 0) | (fromHigh.get(x, y) ? 2 : 0);
+                x += DX[back];
+                y += DY[back];
+            }
+        }
+    }
+
+    /**
+     * Kruskal's algorithm: go through the inner walls in random
+     * order, knocking each one through if the cells on either side
+     * are not yet connected.  The walls are visited in the order
+     * of a random permutation computed on the fly, so the shuffled
+     * list of walls is never stored.
+     */
+    private void kruskal() {
+        if ((long) cells * cells > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze too large for Kruskal's algorithm: "
+                    + cells + " x " + cells);
+        int[] parent = new int[cells * cells];
+        for (int i = 0; i < parent.length; i++)
+            parent[i] = i;
+        long inner = (long) cells * (cells - 1);
+        long walls = 2 * inner;
+        int merges = parent.length - 1;
+        Permutation order = new Permutation(walls, random);
+        for (long i = 0; merges > 0 && i < order.size(); i++) {
+            long w = order.get(i);
+            if (w >= walls)
+                continue;
+            int x, y, side;
+            if (w < inner) {
+                // pole between (x, y) and (x + 1, y)
+                x = (int) (w / cells);
+                y = (int) (w % cells);
+                side = Agent.Heading.EAST.clockwise;
+            } else {
+                // beam between (x, y) and (x, y + 1)
+                w -= inner;
+                x = (int) (w / (cells - 1));
+                y = (int) (w % (cells - 1));
+                side = Agent.Heading.SOUTH.clockwise;
+            }
+            int a = find(parent, x * cells + y);
+            int b = find(parent, (x + DX[side]) * cells + y + DY[side]);
+            if (a != b) {
+                parent[a] = b;
+                open(x, y, side);
+                merges--;
+            }
+        }
+    }
+
+    /**
+     * Find the representative of a set, halving the path to it
+     */
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * Random permutation of the numbers below a power of two,
+     * at least as large as the range wanted, computed one entry
+     * at a time by rounds of multiplying by odd numbers, adding
+     * and xor-shifting, each of which maps k-bit numbers one to
+     * one onto themselves.  Entries beyond the range wanted are
+     * skipped by the caller; there are fewer of them than there
+     * are entries in range.
+     */
+    static class Permutation {
+        /** Rounds of mixing */
+        private static final int ROUNDS = 4;
+        /** Number of bits in each entry */
+        private final int bits;
+        /** Mask of the bits in each entry */
+        private final long mask;
+        /** Odd multiplier for each round */
+        private final long[] multipliers = new long[ROUNDS];
+        /** Amount added in each round */
+        private final long[] addends = new long[ROUNDS];
+
+        /**
+         * @param range number of entries wanted
+         * @param random source of the permutation
+         */
+        Permutation(long range, Random random) {
+            int b = 1;
+            while (b < 62 && (1L << b) < range)
+                b++;
+            bits = b;
+            mask = (1L << b) - 1;
+            for (int r = 0; r < ROUNDS; r++) {
+                multipliers[r] = random.nextLong() | 1;
+                addends[r] = random.nextLong();
+            }
+        }
+
+        /**
+         * @return number of entries in the permutation
+         */
+        long size() {
+            return mask + 1;
+        }
+
+        /**
+         * @param i position in the permutation, below size()
+         * @return the entry at position i
+         */
+        long get(long i) {
+            for (int r = 0; r < ROUNDS; r++) {
+                i = (i * multipliers[r] + addends[r]) & mask;
+                i ^= i >>> (bits / 2 + 1);
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Eller's algorithm.  Each cell of the current row belongs to
+     * a set of cells already connected to it.  Neighbours in
+     * different sets are joined at random, then at least one cell
+     * of every set, and others at random, open into the row
+     * below; cells below that were not opened into start new
+     * sets.  The last row joins every set that is left.  Set
+     * labels are renumbered on each row to stay below the width,
+     * so only a few arrays the width of the maze are needed, and
+     * each row goes to the sink as soon as its walls are known.
+     * The way out is chosen first, since rows cannot be changed
+     * once they are finished.
+     *
+     * @param sink where to put the finished rows
+     * @throws IOException if the sink cannot store a row
+     */
+    private void eller(RowSink sink) throws IOException {
+        int exitSide = random.nextInt(WallMask.SIDES);
+        int exitAt = random.nextInt(cells);
+        int[] label = new int[cells];
+        int[] parent = new int[cells];
+        int[] remaining = new int[cells];
+        int[] remap = new int[cells];
+        boolean[] setOpen = new boolean[cells];
+        boolean[] down = new boolean[cells];
+        byte[] row = new byte[MazeFile.rowBytes(cells)];
+        int labels = 0;
+        Arrays.fill(label, -1);
+
+        for (int y = 0; y < cells; y++) {
+            for (int x = 0; x < cells; x++)
+                if (label[x] < 0)
+                    label[x] = labels++;
+            for (int l = 0; l < labels; l++)
+                parent[l] = l;
+
+            // walls to the north, left by the row above
+            Arrays.fill(row, (byte) 0);
+            for (int x = 0; x < cells; x++)
+                if ((y == 0 || !down[x])
+                        && !(y == 0 && exitSide == Agent.Heading.NORTH.clockwise && x == exitAt))
+                    MazeFile.set(row, MazeFile.beamBit(x));
+
+            // walls between neighbours, joining sets at random
+            if (!(exitSide == Agent.Heading.WEST.clockwise && y == exitAt))
+                MazeFile.set(row, MazeFile.poleBit(cells, 0));
+            if (!(exitSide == Agent.Heading.EAST.clockwise && y == exitAt))
+                MazeFile.set(row, MazeFile.poleBit(cells, cells));
+            for (int x = 0; x + 1 < cells; x++) {
+                int a = find(parent, label[x]);
+                int b = find(parent, label[x + 1]);
+                if (a != b && (y == cells - 1 || coin()))
+                    parent[b] = a;
+                else
+                    MazeFile.set(row, MazeFile.poleBit(cells, x + 1));
+            }
+            sink.row(y, row);
+            if (y == cells - 1)
+                break;
+
+            // openings into the next row, at least one for each set
+            for (int l = 0; l < labels; l++) {
+                remaining[l] = 0;
+                setOpen[l] = false;
+            }
+            for (int x = 0; x < cells; x++) {
+                label[x] = find(parent, label[x]);
+                remaining[label[x]]++;
+            }
+            for (int x = 0; x < cells; x++) {
+                int r = label[x];
+                remaining[r]--;
+                down[x] = coin() || (remaining[r] == 0 && !setOpen[r]);
+                if (down[x])
+                    setOpen[r] = true;
+            }
+
+            // sets carried into the next row, renumbered from 0
+            Arrays.fill(remap, 0, labels, -1);
+            labels = 0;
+            for (int x = 0; x < cells; x++) {
+                if (!down[x]) {
+                    label[x] = -1;
+                } else {
+                    if (remap[label[x]] < 0)
+                        remap[label[x]] = labels++;
+                    label[x] = remap[label[x]];
+                }
+            }
+        }
+
+        // the southern border
+        Arrays.fill(row, (byte) 0);
+        for (int x = 0; x < cells; x++)
+            if (!(exitSide == Agent.Heading.SOUTH.clockwise && x == exitAt))
+                MazeFile.set(row, MazeFile.beamBit(x));
+        sink.row(cells, row);
+    }
+
+    /**
+     * Toss a coin, taking random bits 64 at a time, since
+     * Eller's algorithm needs two tosses for every cell
+     */
+    private boolean coin() {
+        if (coinsLeft == 0) {
+            coins = random.nextLong();
+            coinsLeft = 64;
+        }
+        coinsLeft--;
+        boolean heads = (coins & 1) != 0;
+        coins >>>= 1;
+        return heads;
+    }
+
+    /**
+     * Go through the cells once, knocking through a wall of each
+     * dead end, with probability braid.  Walls that lead to
+     * another dead end are preferred, so one opening removes two.
+     */
+    private void openDeadEnds() {
+        int[] choices = new int[WallMask.SIDES];
+        for (int x = 0; x < cells; x++) {
+            for (int y = 0; y < cells; y++) {
+                if (wallCount(x, y) < WallMask.SIDES - 1 || random.nextDouble() >= braid)
+                    continue;
+                int n = 0;
+                int deadEnds = 0;
+                for (int side = 0; side < WallMask.SIDES; side++) {
+                    int nx = x + DX[side];
+                    int ny = y + DY[side];
+                    if (!inside(nx, ny) || !isWall(x, y, side))
+                        continue;
+                    if (wallCount(nx, ny) == WallMask.SIDES - 1) {
+                        // dead ends go first
+                        choices[n++] = choices[deadEnds];
+                        choices[deadEnds++] = side;
+                    } else {
+                        choices[n++] = side;
+                    }
+                }
+                if (n == 0)
+                    continue;
+                int side = deadEnds > 0 ? choices[random.nextInt(deadEnds)]
+                        : choices[random.nextInt(n)];
+                open(x, y, side);
+            }
+        }
+    }
+
+    /**
+     * Count the walls around cell (x, y)
+     */
+    private int wallCount(int x, int y) {
+        int n = 0;
+        for (int side = 0; side < WallMask.SIDES; side++)
+            if (isWall(x, y, side))
+                n++;
+        return n;
+    }
+
+    /**
+     * Open one random wall on the border as the way out
+     */
+    private void openExit() {
+        int side = random.nextInt(WallMask.SIDES);
+        int i = random.nextInt(cells);
+        switch (side) {
+        case 0:
+            open(i, 0, side);
+            break;
+        case 1:
+            open(cells - 1, i, side);
+            break;
+        case 2:
+            open(i, cells - 1, side);
+            break;
+        default:
+            open(0, i, side);
+            break;
+        }
+    }
+
+    /**
+     * Add the walls of the maze to a world with the same
+     * number of cells, generating the maze first if need be.
+     *
+     * @param w world to build the maze in
+     */
+    public void fill(World w) {
+        if (w.getDimension() != cells)
+            throw new IllegalArgumentException("World has " + w.getDimension()
+                    + " cells per side, maze has " + cells);
+        generate();
+        for (int x = 0; x < cells; x++)
+            for (int y = 0; y <= cells; y++)
+                if (beams.get(x, y))
+                    w.addBeam(x, y);
+        for (int x = 0; x <= cells; x++)
+            for (int y = 0; y < cells; y++)
+                if (poles.get(x, y))
+                    w.addPole(x, y);
+    }
+
+    /**
+     * Write the maze as an XML world spec, generating it first
+     * if need be, with agents at random places and headings.
+     *
+     * @param out where to write the spec
+     * @param agents number of agents to place
+     * @param type XML element name of the agents
+     * @throws IOException if writing fails
+     */
+    public void writeXml(Writer out, int agents, String type) throws IOException {
+        generate();
+        writeWorldStart(out, "");
+        for (int x = 0; x < cells; x++)
+            for (int y = 0; y <= cells; y++)
+                if (beams.get(x, y))
+                    writeWall(out, MazeReader.BEAM_NAME, x, y);
+        for (int x = 0; x <= cells; x++)
+            for (int y = 0; y < cells; y++)
+                if (poles.get(x, y))
+                    writeWall(out, MazeReader.POLE_NAME, x, y);
+        writeAgents(out, agents, type);
+    }
+
+    /**
+     * Write an XML world spec that reads its walls from a maze
+     * file written by writeMazeFile, with agents at random
+     * places and headings.
+     *
+     * @param out where to write the spec
+     * @param mazeFile name of the maze file, relative to the
+     *                 directory of the spec or in full
+     * @param agents number of agents to place
+     * @param type XML element name of the agents
+     * @throws IOException if writing fails
+     */
+    public void writeSpec(Writer out, String mazeFile, int agents, String type) throws IOException {
+        writeWorldStart(out, " " + World.MAZEFILE_PARAM + "=\"" + mazeFile + "\"");
+        writeAgents(out, agents, type);
+    }
+
+    /**
+     * Write the start of a world spec
+     *
+     * @param attributes any more attributes for the world element
+     */
+    private void writeWorldStart(Writer out, String attributes) throws IOException {
+        out.write("<?xml version=\"1.0\"?>\n\n");
+        out.write("<" + World.XML_NAME +
+                " xmlns=\"" + World.XMLNS +
+                "\" " + World.WIDTH_PARAM +
+                "=\"" + Integer.toString(World.DEFAULT_WIDTH) +
+                "\" " + World.HEIGHT_PARAM +
+                "=\"" + Integer.toString(World.DEFAULT_HEIGHT) +
+                "\" " + World.CELL_PARAM +
+                "=\"" + Integer.toString(cells) + "\"" + attributes + " >\n");
+    }
+
+    /**
+     * Write agents at random places and headings, and the end of the spec
+     */
+    private void writeAgents(Writer out, int agents, String type) throws IOException {
+        Agent.Heading[] headings = Agent.Heading.values();
+        for (int i = 0; i < agents; i++) {
+            out.write("<" + type +
+                    " " + Agent.DynamicAgentAttributes.X_PARAM +
+                    "=\"" + Integer.toString(random.nextInt(cells)) +
+                    "\" " + Agent.DynamicAgentAttributes.Y_PARAM +
+                    "=\"" + Integer.toString(random.nextInt(cells)) +
+                    "\" " + Agent.DynamicAgentAttributes.HEADING_PARAM +
+                    "=\"" + headings[random.nextInt(headings.length)].toString() +
+                    "\" />\n");
+        }
+        out.write("</" + World.XML_NAME + ">\n");
+    }
+
+    /**
+     * Write the maze as a maze file.  A maze made by Eller's
+     * algorithm that has not been generated yet goes straight
+     * to the file one row at a time, without ever being held
+     * in memory; other mazes are generated first if need be.
+     *
+     * @param file name of the file to write
+     * @throws IOException if writing fails
+     * @see MazeFile
+     */
+    public void writeMazeFile(String file) throws IOException {
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            MazeFile.writeHeader(out, cells);
+            if (algorithm == Algorithm.ELLER && beams == null) {
+                eller(new RowSink() {
+                    public void row(int y, byte[] row) throws IOException {
+                        out.write(row);
+                    }
+                });
+                return;
+            }
+            generate();
+            byte[] row = new byte[MazeFile.rowBytes(cells)];
+            for (int y = 0; y <= cells; y++) {
+                Arrays.fill(row, (byte) 0);
+                for (int x = 0; x < cells; x++)
+                    if (beams.get(x, y))
+                        MazeFile.set(row, MazeFile.beamBit(x));
+                if (y < cells)
+                    for (int x = 0; x <= cells; x++)
+                        if (poles.get(x, y))
+                            MazeFile.set(row, MazeFile.poleBit(cells, x));
+                out.write(row);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Write one wall element
+     */
+    private static void writeWall(Writer out, String name, int x, int y) throws IOException {
+        out.write("<" + name +
+                " " + MazeReader.X_PARAM +
+                "=\"" + Integer.toString(x) +
+                "\" " + MazeReader.Y_PARAM +
+                "=\"" + Integer.toString(y) +
+                "\" />\n");
+    }
+
+    /**
+     * Name of a file as another file should give it.  Names in
+     * a spec are taken relative to the spec's own directory, so
+     * this is just the file name if both are in the same
+     * directory, and the full name otherwise.
+     *
+     * @param from file that will hold the name
+     * @param file file being named
+     * @return name to write in from
+     */
+    private static String nameFrom(String from, String file) {
+        File f = new File(file).getAbsoluteFile();
+        File dir = new File(from).getAbsoluteFile().getParentFile();
+        return f.getParentFile().equals(dir) ? f.getName() : f.getPath();
+    }
+
+    /**
+     * Command-line interface to the generator.
+     *
+     * @param args array of strings specified on the
+     *             command line; the number of cells along
+     *             each side and the file to write, a maze
+     *             file if its name ends in .maze and an XML
+     *             world spec otherwise, optionally preceded
+     *             by -algorithm (backtracker, kruskal, braided
+     *             or eller), -seed, -braid (fraction of dead
+     *             ends to open), -agents (how many) and -type
+     *             (XML name of the agents) for XML specs, and
+     *             -spec with the name of an XML spec to write
+     *             that uses a maze file
+     */
+    public static void main(String[] args) {
+        Algorithm algorithm = Algorithm.BACKTRACKER;
+        long seed = System.nanoTime();
+        double braid = 1;
+        int agents = 1;
+        String type = DEFAULT_AGENT;
+        String spec = null;
+        int cells;
+        String file;
+        try {
+            int i = 0;
+            for (; i + 1 < args.length && args[i].startsWith("-"); i += 2) {
+                if ("-algorithm".equals(args[i]))
+                    algorithm = Algorithm.valueOf(args[i + 1].toUpperCase());
+                else if ("-seed".equals(args[i]))
+                    seed = Long.parseLong(args[i + 1]);
+                else if ("-braid".equals(args[i]))
+                    braid = Double.parseDouble(args[i + 1]);
+                else if ("-agents".equals(args[i]))
+                    agents = Integer.parseInt(args[i + 1]);
+                else if ("-type".equals(args[i]))
+                    type = args[i + 1];
+                else if ("-spec".equals(args[i]))
+                    spec = args[i + 1];
+                else
+                    throw new IllegalArgumentException(args[i]);
+            }
+            if (args.length - i != 2)
+                throw new IllegalArgumentException();
+            cells = Integer.parseInt(args[i]);
+            file = args[i + 1];
+        } catch (IllegalArgumentException e) {
+            System.err.println("Usage error: run as <program> [-algorithm backtracker|kruskal|braided|eller] [-seed n] [-braid fraction] [-agents n] [-type name] [-spec specfile] <cells> <file> to write a random maze.");
+            return;
+        }
+
+        try {
+            MazeGenerator g = new MazeGenerator(cells, algorithm, seed);
+            g.setBraid(braid);
+            if (file.endsWith(MazeFile.SUFFIX)) {
+                g.writeMazeFile(file);
+                if (spec == null)
+                    return;
+                Writer out = new BufferedWriter(new FileWriter(spec));
+                try {
+                    g.writeSpec(out, nameFrom(spec, file), agents, type);
+                } finally {
+                    out.close();
+                }
+                return;
+            }
+            Writer out = new BufferedWriter(new FileWriter(file));
+            try {
+                g.writeXml(out, agents, type);
+            } finally {
+                out.close();
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+}
@@ -1,4 +1,7 @@
-import java.awt.Frame;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
@@ -21,10 +24,10 @@ import org.xml.sax.helpers.DefaultHandler;
 public class MazeReader extends DefaultHandler {
 
     /** Allows us to allocate unique identifiers to new objects */
-    static int nextId = 1;
+    private int nextId = 1;
     
-    /** Links back to the window where events we read should be displayed */
-    private Frame frame;
+    /** Links back to the window where events we read should be displayed, null when headless */
+    private WorldDisplay display;
     
     /** Used to construct error messages based on file position */
     private Locator locator;
@@ -34,6 +37,33 @@ public class MazeReader extends DefaultHandler {
 
     /** Used to tell if we are handling defaults */
     private boolean inDefaults = false;
+
+    /** Engine that recorded steps are handed to, null to show them as they are read */
+    private ReplayEngine replay = null;
+
+    /** Whether a recorded state has been read but not yet handed to the replay engine */
+    private boolean statePending = false;
+
+    /** Stop reading when a state after this step begins, -1 to read everything */
+    private int lastStep = -1;
+
+    /** Whether to sleep at each wait element, so a log plays back in real time */
+    private boolean paced = true;
+
+    /** Whether worlds stop once they repeat a state, when the spec does not say */
+    private boolean stopCycles = false;
+
+    /**
+     * Thrown to end parsing early once the requested
+     * step of a log has been read.
+     */
+    static class StopParsing extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        StopParsing() {
+            super("Stopped at requested step");
+        }
+    }
     
     /** XML element beginning defaults */
     static final String DEFAULT_ELEMENT = "defaults";
@@ -59,6 +89,67 @@ public class MazeReader extends DefaultHandler {
         return world;
     }
 
+    /**
+     * Hand recorded steps to a replay engine instead of
+     * displaying them and sleeping while the file is read.
+     * 
+     * @param r engine that schedules display of the steps
+     */
+    public void setReplay(ReplayEngine r) {
+        replay = r;
+    }
+
+    /**
+     * Read a log only up to the end of the given step;
+     * parsing ends with StopParsing when the next step begins.
+     * 
+     * @param step last step to read
+     */
+    public void setLastStep(int step) {
+        lastStep = step;
+    }
+
+    /**
+     * Say whether to sleep for the time given by each wait
+     * element of a log.  Nothing sleeps when there is no
+     * display to watch.
+     * 
+     * @param p false to read a log as fast as possible
+     */
+    public void setPaced(boolean p) {
+        paced = p;
+    }
+
+    /**
+     * Say whether the worlds read should stop running once they
+     * get back to a state they were in before, unless the world
+     * spec says otherwise.  Off by default, so a world on screen
+     * runs until it is closed.
+     * 
+     * @param stop true to stop runs that cycle
+     */
+    public void setStopCycles(boolean stop) {
+        stopCycles = stop;
+    }
+
+    /**
+     * Pass the last recorded state to the replay engine,
+     * to be displayed for the given time.
+     * 
+     * @param duration how long to show the state, in milliseconds
+     * @throws SAXException if the replay is shut down while waiting for room
+     */
+    private void flushState(int duration) throws SAXException {
+        if (statePending) {
+            statePending = false;
+            try {
+                replay.put(world.snapshot(duration));
+            } catch (InterruptedException e) {
+                throw new SAXException("Replay stopped");
+            }
+        }
+    }
+
     /**
      *  called when XML parser starts reading and gives us tabs 
      *  on the dynamic Locator object parameter
@@ -88,6 +179,32 @@ public class MazeReader extends DefaultHandler {
         return location;
     }
 
+    /**
+     * Find a file named in a document.  A relative name is taken
+     * relative to the directory the document is in, as a link in
+     * a web page would be, not to wherever the program is run.
+     * 
+     * @param document system id of the document, a URI or a file
+     *                 name, or null if it is not known
+     * @param name file name found in the document
+     * @return name the file can be opened by
+     */
+    static public String resolve(String document, String name) {
+        if (document == null || new File(name).isAbsolute())
+            return name;
+        File doc;
+        try {
+            URI uri = new URI(document);
+            doc = "file".equals(uri.getScheme()) ? new File(uri) : new File(document);
+        } catch (URISyntaxException e) {
+            doc = new File(document);
+        } catch (IllegalArgumentException e) {
+            doc = new File(document);
+        }
+        File dir = doc.getParentFile();
+        return dir == null ? name : new File(dir, name).getPath();
+    }
+
     /**
      * Helper function for extracting information from the XML attributes
      * of an XML element.
@@ -190,13 +307,14 @@ public class MazeReader extends DefaultHandler {
     }
 
     /**
-     * Constructor, keeps the passed frame to build UI for world
+     * Constructor, keeps the passed display to show the world on
      * 
-     * @param f window where specified world appears
+     * @param d display where specified world appears, or null to
+     *          build the world without any display
      */
-    public MazeReader(Frame f) {
+    public MazeReader(WorldDisplay d) {
         super();
-        frame = f;
+        display = d;
     }
 
 
@@ -211,7 +329,11 @@ public class MazeReader extends DefaultHandler {
 
 
     public void endDocument ()
+    throws SAXException
     {
+        if (replay != null) {
+            flushState(World.DEFAULT_WAIT);
+        }
     }
 
     /**
@@ -247,13 +369,24 @@ public class MazeReader extends DefaultHandler {
         }   
         
         if (World.STATE_NAME.equals(name)) {
+            if (replay != null) {
+                flushState(World.DEFAULT_WAIT);
+            }
             int step = getIntParam(atts, World.STEP_NAME, world.getStepCount(), locator);
+            if (lastStep >= 0 && step > lastStep)
+                throw new StopParsing();
             world.setStepCount(step);
             return;
         }
         
         if (World.WAIT_NAME.equals(name)) {
             int duration = getIntParam(atts, World.WAIT_INTERVAL, World.DEFAULT_WAIT, locator);
+            if (replay != null) {
+                flushState(duration);
+                return;
+            }
+            if (!paced || display == null)
+                return;
             try { 
                 Thread.sleep(duration);
             } catch (InterruptedException e) {
@@ -271,10 +404,32 @@ public class MazeReader extends DefaultHandler {
             String logfile = getStringParam(atts, World.LOGFILE_PARAM, null, locator);
             boolean runnable = getBoolParam(atts, World.RUNNABLE_PARAM, true, locator);
             boolean debug = getBoolParam(atts, World.DEBUG_PARAM, false, locator);
-            world = new World(width, height, cells, logfile, runnable, delay, rep, debug);
-            frame.setSize(width,height);
-            frame.add(world);
-            frame.pack();
+            int flush = getIntParam(atts, World.FLUSH_PARAM, LogSink.DEFAULT_FLUSH_INTERVAL, locator);
+            String mazefile = getStringParam(atts, World.MAZEFILE_PARAM, null, locator);
+            if (mazefile != null) {
+                MappedMaze maze;
+                try {
+                    maze = MappedMaze.open(resolve(locator != null ? locator.getSystemId() : null, mazefile));
+                } catch (IOException e) {
+                    throw new SAXException(locationMsg(locator) + "Cannot read maze file " + mazefile + ": " + e.getMessage());
+                }
+                world = new World(width, height, maze, logfile, runnable, delay, rep, debug);
+            } else {
+                world = new World(width, height, cells, logfile, runnable, delay, rep, debug);
+            }
+            world.setFlushInterval(flush);
+            String format = getStringParam(atts, World.LOGFORMAT_PARAM, "xml", locator);
+            world.setBinaryLog(BinaryTrace.FORMAT_NAME.equals(format));
+            world.setParallel(getBoolParam(atts, World.PARALLEL_PARAM, false, locator));
+            world.setSight(getIntParam(atts, World.SIGHT_PARAM, 1, locator));
+            world.setStopCycles(getBoolParam(atts, World.CYCLES_PARAM, stopCycles, locator));
+            world.setKeyframeInterval(getIntParam(atts, World.KEYFRAME_PARAM,
+                    LogIndex.DEFAULT_KEYFRAME_INTERVAL, locator));
+            if (display != null) {
+                display.attach(world);
+            } else {
+                world.setHeadless(true);
+            }
             return;
         }
         
@@ -300,7 +455,8 @@ public class MazeReader extends DefaultHandler {
         int id = getIntParam(atts, Agent.ID_PARAM, nextId++, locator);
         Agent a = world.getAgent(id);
         if (a != null) {
-            if (Agent.UPDATE.equals(name))
+            // full descriptions of existing agents come from log keyframes
+            if (Agent.UPDATE.equals(name) || name.equals(a.getXmlName()))
                 a.update(atts, locator);    
             else if (World.DIE_NAME.equals(name))
                 world.removeAgent(a);
@@ -309,24 +465,24 @@ public class MazeReader extends DefaultHandler {
         
         if (Follower.XML_NAME.equals(name)) {
             if (inDefaults) {
-                Follower.defaultDynamicAgentAttributes.update(atts, locator);
-                Follower.defaultFixedAgentAttributes.update(atts, locator);
+                world.getAgentDefaults().getDynamic(name).update(atts, locator);
+                world.getAgentDefaults().getFixed(name).update(atts, locator);
             } else {
                 Follower f = new Follower(world, id, atts, locator);
                 world.addAgent(f);
             }
         } else if (Stepper.XML_NAME.equals(name)) {
             if (inDefaults) {
-                Stepper.defaultDynamicAgentAttributes.update(atts, locator);
-                Stepper.defaultFixedAgentAttributes.update(atts, locator);
+                world.getAgentDefaults().getDynamic(name).update(atts, locator);
+                world.getAgentDefaults().getFixed(name).update(atts, locator);
             } else {
                 Stepper f = new Stepper(world, id, atts, locator);
                 world.addAgent(f);
             }
         } else if (TrialAndError.XML_NAME.equals(name)) {
             if (inDefaults) {
-                TrialAndError.defaultDynamicAgentAttributes.update(atts, locator);
-                TrialAndError.defaultFixedAgentAttributes.update(atts, locator);
+                world.getAgentDefaults().getDynamic(name).update(atts, locator);
+                world.getAgentDefaults().getFixed(name).update(atts, locator);
             } else {
                 TrialAndError f = new TrialAndError(world, id, atts, locator);
                 world.addAgent(f);
@@ -354,10 +510,13 @@ public class MazeReader extends DefaultHandler {
     {
         if ((World.XMLNS.equals(uri) || "".equals (uri))) {
             if (World.STATE_NAME.equals(name)) {
-                frame.setVisible(true);
-                if (world != null) {
-                    world.repaint();
+                if (replay != null && world != null && !world.isRunnable()) {
+                    statePending = true;
+                    return;
                 }
+                if (display == null)
+                    return;
+                display.refresh();
             }
             else if (DEFAULT_ELEMENT.equals(name)) {
                 inDefaults = false;
@@ -0,0 +1,103 @@
+
+
+/**
+ * Maze Assignment: Percept.java
+ *
+ * Class for representing distance readings in the maze world
+ * 
+ * @author Matthew Stone
+ * @version 1.0
+ *
+ */
+public class Percept {
+    
+    /**
+     * Percepts give qualitatively different information about
+     * what was seen; the different possibilities are given
+     * as the value of the ObjectCategory type.
+     */
+    static enum ObjectCategory {
+        /** An inert object that must be avoided */
+        OBSTACLE;
+    }
+        
+    /** Largest distance for which shared percept instances are kept */
+    static final int MAX_INTERNED_DISTANCE = 16;
+
+    /**
+     * Shared instances for every combination of category,
+     * nearby distance and direction, indexed as
+     * [category][distance][direction], so that perception
+     * does not have to allocate.
+     */
+    private static final Percept[][][] interned;
+    static {
+        ObjectCategory[] cs = ObjectCategory.values();
+        Agent.Direction[] ds = Agent.Direction.values();
+        interned = new Percept[cs.length][MAX_INTERNED_DISTANCE + 1][ds.length];
+        for (ObjectCategory c : cs)
+            for (int dis = 0; dis <= MAX_INTERNED_DISTANCE; dis++)
+                for (Agent.Direction dir : ds)
+                    interned[c.ordinal()][dis][dir.ordinal()] = new Percept(c, dis, dir);
+    }
+
+    /** What was seen */
+    private final ObjectCategory objectCategory;
+    /** How far away the object sits */
+    private final int distance;
+    /** Where perceived obstacle is relative to you (AHEAD, LEFT, RIGHT, BEHIND) */
+    private final Agent.Direction direction;
+
+    /**
+     * Constructor for percept object
+     * 
+     * @param c what was seen
+     * @param dis how far perceived agent was
+     * @param dir where perceived agent is relative to you
+     */
+    public Percept(ObjectCategory c, int dis, Agent.Direction dir) {
+        objectCategory = c;
+        distance = dis;
+        direction = dir;
+    }
+    
+    /**
+     * Get a percept object with the given contents.
+     * Percepts are immutable, so nearby ones are shared
+     * instead of being created afresh each time.
+     * 
+     * @param c what was seen
+     * @param dis how far perceived agent was
+     * @param dir where perceived agent is relative to you
+     * @return a percept with those contents
+     */
+    public static Percept of(ObjectCategory c, int dis, Agent.Direction dir) {
+        if (dis >= 0 && dis <= MAX_INTERNED_DISTANCE)
+            return interned[c.ordinal()][dis][dir.ordinal()];
+        return new Percept(c, dis, dir);
+    }
+
+    /**
+     * Accessor
+     * @return what was seen
+     */
+    public ObjectCategory getObjectCategory() {
+        return objectCategory;
+    }
+
+    /**
+     * Accessor
+     * @return how far perceived agent was
+     */
+    public int getDistance() {
+        return distance;
+    }
+    
+    /**
+     * Accessor
+     * @return where perceived agent is relative to you
+     */
+    public Agent.Direction getDirection() {
+        return direction;
+    }
+}
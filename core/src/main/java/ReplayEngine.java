@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+/**
+ * Maze Assignment: ReplayEngine.java
+ *
+ * Plays back a recorded log without making the parser wait.
+ * One thread parses the log ahead of the display, turning
+ * each recorded state into a snapshot in a bounded queue;
+ * a scheduler takes snapshots off the queue and shows them
+ * for the time the log asks for, divided by the current
+ * playback speed.  Playback can be paused and sped up.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class ReplayEngine {
+
+    /** How many parsed steps may wait to be shown */
+    static final int QUEUE_SIZE = 256;
+
+    /** Playback speed meaning "show steps as fast as they are parsed" */
+    static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    /** Marks the end of the log in the queue of snapshots */
+    private static final WorldSnapshot END = new WorldSnapshot(0, 0, new AgentTable());
+
+    /** Steps parsed but not yet shown */
+    private final BlockingQueue<WorldSnapshot> frames =
+        new ArrayBlockingQueue<WorldSnapshot>(QUEUE_SIZE);
+
+    /** Thread that shows snapshots at the right times */
+    private final ScheduledExecutorService timer;
+
+    /** Released once parsing has produced a step or finished */
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    /** Released once the last step has been shown */
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    /** World displaying the replay */
+    private World world;
+
+    /** Thread running the parser */
+    private Thread parser;
+
+    /** Multiplier applied to the recorded playback rate */
+    private volatile double speed = 1.0;
+
+    /** Whether playback is paused */
+    private boolean paused = false;
+
+    /** Whether the presenter stopped rescheduling itself because of a pause */
+    private boolean idle = false;
+
+    /** System.nanoTime() at which the step being shown was due; used only by the timer */
+    private long due;
+
+    /** Whether due has been set since playback started or resumed */
+    private boolean onSchedule = false;
+
+    /** Task that shows the next snapshot, used to restart after a pause */
+    private final Runnable presenter = new Runnable() {
+        public void run() {
+            presentNext();
+        }
+    };
+
+    /**
+     * Constructor: prepare the scheduler
+     */
+    public ReplayEngine() {
+        timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "replay");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Start parsing the passed log on a background thread.
+     * The reader's content handler should be a MazeReader
+     * that has been given this engine with setReplay.
+     *
+     * @param xr SAX reader set up to process the log
+     * @param source the log to parse
+     */
+    public void parse(final XMLReader xr, final InputSource source) {
+        parser = new Thread("replay parser") {
+            public void run() {
+                try {
+                    xr.parse(source);
+                } catch (SAXException e) {
+                    if (!isInterrupted())
+                        System.err.println(e.getMessage());
+                } catch (IOException e) {
+                    System.err.println(e.getMessage());
+                } finally {
+                    endOfLog();
+                }
+            }
+        };
+        parser.setDaemon(true);
+        parser.start();
+    }
+
+    /**
+     * Wait until the parser has either produced a step to show
+     * or reached the end of the log.  After this the world
+     * header has been read.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    /**
+     * Wait until the parser has reached the end of the log.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitParsed() throws InterruptedException {
+        if (parser != null)
+            parser.join();
+    }
+
+    /**
+     * Called by the parser with each complete recorded step.
+     * Blocks while the queue is full, so parsing never runs
+     * more than QUEUE_SIZE steps ahead of the display.
+     *
+     * @param s the step to show
+     * @throws InterruptedException if the replay is being shut down
+     */
+    public void put(WorldSnapshot s) throws InterruptedException {
+        frames.put(s);
+        ready.countDown();
+    }
+
+    /**
+     * Called when the parser has finished with the log.
+     */
+    private void endOfLog() {
+        try {
+            frames.put(END);
+        } catch (InterruptedException e) {
+            finished.countDown();
+        }
+        ready.countDown();
+    }
+
+    /**
+     * Begin showing parsed steps in w.
+     *
+     * @param w world that displays the replay
+     */
+    public void play(World w) {
+        world = w;
+        timer.execute(presenter);
+    }
+
+    /**
+     * Show the next step and schedule the one after it
+     * for when it is due.  Runs on the timer thread.
+     */
+    private void presentNext() {
+        synchronized (this) {
+            if (paused) {
+                idle = true;
+                onSchedule = false;
+                return;
+            }
+        }
+        WorldSnapshot s;
+        try {
+            s = frames.take();
+        } catch (InterruptedException e) {
+            finished.countDown();
+            return;
+        }
+        if (s == END) {
+            finished.countDown();
+            return;
+        }
+        world.show(s);
+
+        // Each step is due a fixed time after the previous one was due,
+        // so time spent parsing and showing does not add up; after a
+        // pause, or when the parser has fallen a whole step behind,
+        // start counting again from now
+        long now = System.nanoTime();
+        double sp = speed;
+        long wait = (sp == MAX_SPEED) ? 0 : Math.round(s.getWait() * 1e6 / sp);
+        if (!onSchedule || now - due > wait) {
+            due = now;
+            onSchedule = true;
+        }
+        due += wait;
+        timer.schedule(presenter, Math.max(0, due - now), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Change how fast steps are shown.
+     *
+     * @param s multiple of the recorded rate, or MAX_SPEED for no waiting
+     */
+    public void setSpeed(double s) {
+        speed = s;
+    }
+
+    /**
+     * @return current multiple of the recorded rate
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Stop showing new steps until resume is called.
+     */
+    public synchronized void pause() {
+        paused = true;
+    }
+
+    /**
+     * Continue showing steps after a pause.
+     */
+    public synchronized void resume() {
+        if (paused) {
+            paused = false;
+            if (idle) {
+                idle = false;
+                timer.execute(presenter);
+            }
+        }
+    }
+
+    /**
+     * @return true if playback is paused
+     */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Wait until every step in the log has been shown.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitFinished() throws InterruptedException {
+        finished.await();
+    }
+
+    /**
+     * Stop parsing and showing steps.
+     */
+    public void stop() {
+        if (parser != null)
+            parser.interrupt();
+        timer.shutdownNow();
+        finished.countDown();
+    }
+}
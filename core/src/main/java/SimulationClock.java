@@ -0,0 +1,122 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Maze Assignment: SimulationClock.java
+ *
+ * Steps a world at a fixed rate.  Each step has a deadline
+ * one period after the previous deadline, not one period
+ * after the previous step finished, so the time taken by
+ * the steps themselves does not slow the simulation down
+ * as long as they fit in the period.  Steps that start
+ * after their deadline are counted as late.  A period of
+ * zero means run at full speed, without ever waiting.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class SimulationClock {
+
+    /** The world being stepped */
+    private final World world;
+
+    /** Time from one step to the next, in nanoseconds; 0 for no waiting */
+    private final long period;
+
+    /** Steps run so far */
+    private int steps;
+
+    /** Steps that started after their deadline */
+    private int lateSteps;
+
+    /** Furthest behind its deadline any step started, in nanoseconds */
+    private long worstLateness;
+
+    /**
+     * Constructor: a clock for a world at the world's own rate
+     *
+     * @param w world to step
+     */
+    public SimulationClock(World w) {
+        this(w, w.getDelay());
+    }
+
+    /**
+     * Constructor: a clock for a world at a given rate
+     *
+     * @param w world to step
+     * @param delay milliseconds from one step to the next, 0 for full speed
+     */
+    public SimulationClock(World w, int delay) {
+        world = w;
+        period = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+    }
+
+    /**
+     * Step the world until it stops being runnable.  The first
+     * step is taken one period after this is called.  If steps
+     * fall more than a whole period behind, the clock starts
+     * counting again from the late step rather than running the
+     * missed steps back to back to catch up.
+     *
+     * @throws InterruptedException if interrupted while waiting for a step
+     */
+    public void run() throws InterruptedException {
+        long deadline = System.nanoTime();
+        while (world.isRunnable()) {
+            if (period > 0) {
+                deadline += period;
+                long late = waitUntil(deadline);
+                if (late > 0) {
+                    lateSteps++;
+                    worstLateness = Math.max(worstLateness, late);
+                    if (late > period)
+                        deadline += late;
+                }
+            }
+            world.stepWorld();
+            steps++;
+        }
+    }
+
+    /**
+     * Wait until System.nanoTime() reaches the deadline.
+     *
+     * @param deadline time to wait for
+     * @return how far past the deadline it already was, 0 if it had not arrived
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static long waitUntil(long deadline) throws InterruptedException {
+        long left = deadline - System.nanoTime();
+        if (left < 0)
+            return -left;
+        while (left > 0) {
+            LockSupport.parkNanos(left);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            left = deadline - System.nanoTime();
+        }
+        return 0;
+    }
+
+    /**
+     * @return steps run so far
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return steps that started after their deadline
+     */
+    public int getLateSteps() {
+        return lateSteps;
+    }
+
+    /**
+     * @return furthest behind its deadline any step started, in milliseconds
+     */
+    public double getWorstLateness() {
+        return worstLateness / 1e6;
+    }
+}
@@ -1,7 +1,5 @@
-import java.awt.Graphics;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.xml.sax.Attributes;
@@ -31,17 +29,17 @@ public class TrialAndError extends Agent {
 	static final int TRYER_SIZE = 15;
 
 	/**
-	 * Record that allows XML files to set default attributes for
+	 * Starting point for each world's record of default attributes for
 	 * trial-and-error agent
 	 */
-	static FixedAgentAttributes defaultFixedAgentAttributes = new Agent.FixedAgentAttributes(
+	static final FixedAgentAttributes defaultFixedAgentAttributes = new Agent.FixedAgentAttributes(
 			false, false);
 
 	/**
-	 * Record that allows XML files to set default state for trial-and-error
+	 * Starting point for each world's record of default state for trial-and-error
 	 * agent
 	 */
-	static DynamicAgentAttributes defaultDynamicAgentAttributes = new Agent.DynamicAgentAttributes(
+	static final DynamicAgentAttributes defaultDynamicAgentAttributes = new Agent.DynamicAgentAttributes(
 			0, 0, Agent.Heading.EAST, false, null);
 
 	/**
@@ -70,9 +68,10 @@ public class TrialAndError extends Agent {
 			throws SAXException {
 		myWorld = w;
 		this.id = id;
-		form = new FixedAgentAttributes(atts, defaultFixedAgentAttributes, loc);
+		AgentDefaults defaults = w.getAgentDefaults();
+		form = new FixedAgentAttributes(atts, defaults.getFixed(XML_NAME), loc);
 		status = new DynamicAgentAttributes(atts,
-				defaultDynamicAgentAttributes, loc);
+				defaults.getDynamic(XML_NAME), loc);
 		int size = w.getDimension();
 		visited = new boolean[size][size];
 		explored = new boolean[size][size];
@@ -85,6 +84,14 @@ public class TrialAndError extends Agent {
 			}
 	}
 
+	/**
+	 * @return the XML element tag for this kind of agent
+	 */
+	@Override
+	public String getXmlName() {
+		return XML_NAME;
+	}
+
 	/**
 	 * Output an XML element describing the current state of this
 	 * trial-and-error agent.
@@ -106,17 +113,18 @@ public class TrialAndError extends Agent {
 	 * Draw a trial-and-error agent as a solid triangle pointing in the
 	 * direction of the agent's heading.
 	 * 
-	 * @param g object to control drawing mechanism
+	 * @param c where to draw
+	 * @param s position and heading to draw the agent at
 	 * 
-	 * @see Agent#draw(java.awt.Graphics)
+	 * @see Agent#draw(AgentCanvas, Agent.DynamicAgentAttributes)
 	 */
 	@Override
-	public void draw(Graphics g) {
+	public void draw(AgentCanvas c, DynamicAgentAttributes s) {
 		int[] xpoints = new int[3];
 		int[] ypoints = new int[3];
 
 		double pointAngle = 0;
-		switch (status.heading) {
+		switch (s.heading) {
 		case NORTH:
 			pointAngle = -Math.PI / 2;
 			break;
@@ -132,29 +140,47 @@ public class TrialAndError extends Agent {
 		}
 		double baseAngle = pointAngle - Math.PI / 2;
 
-		double s = TRYER_SIZE;
-		int baseOffsetX = (int) Math.round(2 * s * Math.cos(baseAngle) / 3);
-		int baseOffsetY = (int) Math.round(2 * s * Math.sin(baseAngle) / 3);
+		double size = TRYER_SIZE;
+		int baseOffsetX = (int) Math.round(2 * size * Math.cos(baseAngle) / 3);
+		int baseOffsetY = (int) Math.round(2 * size * Math.sin(baseAngle) / 3);
 
-		int x0 = ((int) Math.round(0 - baseOffsetX / 2 - s
+		int x0 = ((int) Math.round(0 - baseOffsetX / 2 - size
 				* Math.cos(pointAngle) / 3));
-		int y0 = ((int) Math.round(0 - baseOffsetY / 2 - s
+		int y0 = ((int) Math.round(0 - baseOffsetY / 2 - size
 				* Math.sin(pointAngle) / 3));
 
 		xpoints[0] = x0;
 		xpoints[1] = x0 + baseOffsetX;
 		xpoints[2] = x0 + baseOffsetX / 2
-				+ (int) Math.round(s * Math.cos(pointAngle));
+				+ (int) Math.round(size * Math.cos(pointAngle));
 
 		ypoints[0] = y0;
 		ypoints[1] = y0 + baseOffsetY;
 		ypoints[2] = y0 + baseOffsetY / 2
-				+ (int) Math.round(s * Math.sin(pointAngle));
+				+ (int) Math.round(size * Math.sin(pointAngle));
 
-		myWorld.fillPolygon(status.locX, status.locY, xpoints, ypoints, 3, g);
+		c.fillPolygon(s.locX, s.locY, xpoints, ypoints, 3);
 
 	}
 
+	/**
+	 * @return a hash of everything the agent remembers about the maze: where
+	 *         it has visited and explored, and which way it went from each
+	 *         cell, so an agent still exploring is never taken to be trapped
+	 * @see Agent#stateHash()
+	 */
+	@Override
+	public long stateHash() {
+		long h = 17;
+		for (int i = 0; i < visited.length; i++)
+			for (int j = 0; j < visited[i].length; j++) {
+				h = 31 * h + (visited[i][j] ? 1 : 0);
+				h = 31 * h + (explored[i][j] ? 1 : 0);
+				h = 31 * h + (went[i][j] == null ? 0 : went[i][j].ordinal() + 1);
+			}
+		return h;
+	}
+
 	// TODO: Include any new instance variables here...
 
 	/**
@@ -167,7 +193,7 @@ public class TrialAndError extends Agent {
 	public void deliberate(List<Percept> ps) {
 
 		// TODO: Include any new code here...
-		todo = new LinkedList<Intention>();
-		todo.add(new Intention(Intention.ActionType.STEP));
+		todo.clear();
+		todo.add(Intention.of(Intention.ActionType.STEP));
 	}
 }
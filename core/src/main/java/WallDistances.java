@@ -0,0 +1,114 @@
+/**
+ * Maze Assignment: WallDistances.java
+ *
+ * For every cell of a maze and each of the four headings,
+ * how many steps can be taken from the cell before running
+ * into a wall.  The tables are filled in by sweeping along
+ * each row and column once, carrying the length of the open
+ * run so far, so building them takes time proportional to
+ * the size of the maze; after that, how far an agent can
+ * move or see in a straight line takes one lookup.  The
+ * tables take 16 bytes a cell, so they are only built for
+ * mazes that leave most of the heap free.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class WallDistances {
+
+    /** Distance recorded when the way out of the maze is open */
+    static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /** Bytes the tables take for each cell: an int for each heading */
+    static final long BYTES_PER_CELL = 4 * WallMask.SIDES;
+
+    /** The tables may take at most this fraction of the largest heap, as 1 / HEAP_SHARE */
+    static final int HEAP_SHARE = 4;
+
+    /** Number of cells along each side of the maze */
+    private final int cells;
+
+    /** Steps to the next wall, [heading clockwise index][x * cells + y] */
+    private final int[][] steps;
+
+    /**
+     * Can tables be built for a maze of this size
+     *
+     * @param cells number of cells along each side
+     * @return true if the cells fit in an array and the
+     *         tables in their share of the heap
+     */
+    public static boolean fits(int cells) {
+        long n = (long) cells * cells;
+        return n <= Integer.MAX_VALUE
+                && n * BYTES_PER_CELL <= Runtime.getRuntime().maxMemory() / HEAP_SHARE;
+    }
+
+    /**
+     * Constructor: measure the open runs in a maze
+     *
+     * @param cells number of cells along each side
+     * @param beams horizontal walls, cells x (cells + 1)
+     * @param poles vertical walls, (cells + 1) x cells
+     */
+    public WallDistances(int cells, WallGrid beams, WallGrid poles) {
+        if (!fits(cells))
+            throw new IllegalArgumentException("Maze too large: " + cells + " x " + cells);
+        this.cells = cells;
+        int n = cells * cells;
+        int[] north = new int[n];
+        int[] east = new int[n];
+        int[] south = new int[n];
+        int[] west = new int[n];
+        steps = new int[WallMask.SIDES][];
+        steps[Agent.Heading.NORTH.clockwise] = north;
+        steps[Agent.Heading.EAST.clockwise] = east;
+        steps[Agent.Heading.SOUTH.clockwise] = south;
+        steps[Agent.Heading.WEST.clockwise] = west;
+
+        for (int x = 0; x < cells; x++) {
+            int run = UNBOUNDED;
+            for (int y = 0; y < cells; y++) {
+                run = beams.get(x, y) ? 0 : extend(run);
+                north[x * cells + y] = run;
+            }
+            run = UNBOUNDED;
+            for (int y = cells - 1; y >= 0; y--) {
+                run = beams.get(x, y + 1) ? 0 : extend(run);
+                south[x * cells + y] = run;
+            }
+        }
+        for (int y = 0; y < cells; y++) {
+            int run = UNBOUNDED;
+            for (int x = 0; x < cells; x++) {
+                run = poles.get(x, y) ? 0 : extend(run);
+                west[x * cells + y] = run;
+            }
+            run = UNBOUNDED;
+            for (int x = cells - 1; x >= 0; x--) {
+                run = poles.get(x + 1, y) ? 0 : extend(run);
+                east[x * cells + y] = run;
+            }
+        }
+    }
+
+    /**
+     * The open run from a neighbouring cell, one step longer
+     */
+    private static int extend(int run) {
+        return run == UNBOUNDED ? UNBOUNDED : run + 1;
+    }
+
+    /**
+     * How far it is possible to go from cell (x, y)
+     *
+     * @param x horizontal coordinate, 0 <= x < cells
+     * @param y vertical coordinate, 0 <= y < cells
+     * @param clockwise clockwise index of the heading to go in
+     * @return steps before the next wall, or UNBOUNDED if the way
+     *         leads out of the maze
+     */
+    public int get(int x, int y, int clockwise) {
+        return steps[clockwise][x * cells + y];
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Maze Assignment: WallGrid.java
+ *
+ * Read-only view of one kind of wall in a maze, beams or
+ * poles, wherever the walls are actually kept: in memory
+ * as a WallPlane, or in a maze file as a MappedMaze.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public interface WallGrid {
+
+    /**
+     * Is there a wall at (x, y)
+     *
+     * @param x first coordinate
+     * @param y second coordinate
+     * @return true if the wall is present
+     */
+    boolean get(int x, int y);
+
+    /**
+     * Count the walls in the grid
+     *
+     * @return number of walls present
+     */
+    long count();
+}
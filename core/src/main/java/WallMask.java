@@ -0,0 +1,100 @@
+/**
+ * Maze Assignment: WallMask.java
+ *
+ * The walls around every cell of a maze, as one 4-bit mask
+ * per cell packed sixteen to a long word.  Bit c of a mask is
+ * set when the cell has a wall on the side whose clockwise
+ * index is c: north 0, east 1, south 2, west 3.  Rotating a
+ * mask by the clockwise index of a heading gives the walls
+ * relative to that heading, indexed by Direction.clockwise,
+ * so an agent's surroundings take one lookup to perceive.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class WallMask {
+
+    /** Bits in each cell's mask */
+    static final int SIDES = 4;
+
+    /** All the bits of a mask */
+    static final int ALL = (1 << SIDES) - 1;
+
+    /** log2 of the number of cells in each word */
+    private static final int CELL_SHIFT = 4;
+
+    /** Number of rows: the range of the first coordinate */
+    private final int rows;
+
+    /** Number of columns: the range of the second coordinate */
+    private final int columns;
+
+    /** The masks, cell (x, y) at nibble (x * columns + y) */
+    private final long[] words;
+
+    /**
+     * Constructor: masks for cells with no walls
+     *
+     * @param rows range of the first coordinate
+     * @param columns range of the second coordinate
+     */
+    public WallMask(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        long cells = (long) rows * columns;
+        long n = (cells + (1 << CELL_SHIFT) - 1) >>> CELL_SHIFT;
+        if (n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze too large: " + rows + " x " + columns);
+        words = new long[(int) n];
+    }
+
+    /**
+     * @return range of the first coordinate
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return range of the second coordinate
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the walls around cell (x, y)
+     *
+     * @param x first coordinate, 0 <= x < rows
+     * @param y second coordinate, 0 <= y < columns
+     * @return mask with a bit set for each side with a wall
+     */
+    public int get(int x, int y) {
+        long c = (long) x * columns + y;
+        return (int) (words[(int) (c >>> CELL_SHIFT)] >>> ((c & 15) << 2)) & ALL;
+    }
+
+    /**
+     * Add walls around cell (x, y)
+     *
+     * @param x first coordinate, 0 <= x < rows
+     * @param y second coordinate, 0 <= y < columns
+     * @param sides mask of the sides to add
+     */
+    public void add(int x, int y, int sides) {
+        long c = (long) x * columns + y;
+        words[(int) (c >>> CELL_SHIFT)] |= (long) (sides & ALL) << ((c & 15) << 2);
+    }
+
+    /**
+     * Turn a mask of walls on absolute sides into a mask of
+     * walls relative to a heading.
+     *
+     * @param mask walls indexed by clockwise side
+     * @param clockwise clockwise index of the heading
+     * @return walls indexed by clockwise direction from the heading
+     */
+    public static int rotate(int mask, int clockwise) {
+        return ((mask >>> clockwise) | (mask << (SIDES - clockwise))) & ALL;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Maze Assignment: WallPlane.java
+ *
+ * Compact grid of wall flags: one bit per possible wall,
+ * packed into a single flat array of long words, row by
+ * row.  A plane takes an eighth of the memory of a
+ * boolean[][] of the same size and has no per-row array
+ * headers, so mazes far too large for boolean arrays can
+ * still be stored, and scanning along a row stays within
+ * a few cache lines.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class WallPlane implements WallGrid {
+
+    /** Bits in each word of the plane */
+    private static final int WORD_BITS = 64;
+
+    /** log2 of WORD_BITS, for turning bit indices into word indices */
+    private static final int WORD_SHIFT = 6;
+
+    /** Number of rows: the range of the first coordinate */
+    private final int rows;
+
+    /** Number of columns: the range of the second coordinate */
+    private final int columns;
+
+    /** The wall flags, bit (x * columns + y) for wall (x, y) */
+    private final long[] words;
+
+    /**
+     * Constructor: a plane with no walls
+     *
+     * @param rows range of the first coordinate
+     * @param columns range of the second coordinate
+     */
+    public WallPlane(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        long bits = (long) rows * columns;
+        long n = (bits + WORD_BITS - 1) >>> WORD_SHIFT;
+        if (n > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Maze too large: " + rows + " x " + columns);
+        words = new long[(int) n];
+    }
+
+    /**
+     * @return range of the first coordinate
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return range of the second coordinate
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Position of the bit for wall (x, y)
+     */
+    private long bit(int x, int y) {
+        return (long) x * columns + y;
+    }
+
+    /**
+     * Is there a wall at (x, y)
+     *
+     * @param x first coordinate, 0 <= x < rows
+     * @param y second coordinate, 0 <= y < columns
+     * @return true if the wall is present
+     */
+    public boolean get(int x, int y) {
+        long b = bit(x, y);
+        return (words[(int) (b >>> WORD_SHIFT)] & (1L << b)) != 0;
+    }
+
+    /**
+     * Put a wall at (x, y)
+     *
+     * @param x first coordinate, 0 <= x < rows
+     * @param y second coordinate, 0 <= y < columns
+     */
+    public void set(int x, int y) {
+        long b = bit(x, y);
+        words[(int) (b >>> WORD_SHIFT)] |= 1L << b;
+    }
+
+    /**
+     * Take away the wall at (x, y)
+     *
+     * @param x first coordinate, 0 <= x < rows
+     * @param y second coordinate, 0 <= y < columns
+     */
+    public void clear(int x, int y) {
+        long b = bit(x, y);
+        words[(int) (b >>> WORD_SHIFT)] &= ~(1L << b);
+    }
+
+    /**
+     * Count the walls in the plane
+     *
+     * @return number of walls present
+     */
+    public long count() {
+        long n = 0;
+        for (long w : words)
+            n += Long.bitCount(w);
+        return n;
+    }
+}
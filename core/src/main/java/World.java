@@ -0,0 +1,1260 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Maze Assignment: World.java
+ *
+ * World calculates the dynamics of an agent acting in a
+ * world environment.  It knows nothing about drawing: a
+ * display draws whichever step the world last published.
+ * 
+ * @author Matthew Stone
+ * @version 1.0
+ */
+
+public class World {
+
+    /**
+     * Static class definitions
+     */
+
+    /**
+     * Constants specifying the format by which 
+     * World constructs are encoded as XML documents.
+     */
+
+    /** XML namespace */
+    static final String XMLNS = 
+        "http://perceptualscience.rutgers.edu/maze";
+
+    /** Element tag for world objects */
+    static final String XML_NAME = "world";
+
+    /** Attribute name for world width */
+    static final String WIDTH_PARAM = "width";
+  
+    /** Value used when no width specified */
+    static final int DEFAULT_WIDTH = 500;
+
+    /** Attribute name for world height */
+    static final String HEIGHT_PARAM = "height";
+
+    /** Value used when no height specified */
+    static final int DEFAULT_HEIGHT = 500;
+
+    /** Attribute name for cells in maze */
+    static final String CELL_PARAM = "cells";
+
+    /** Value used when no cells specified */
+    static final int DEFAULT_CELLS = 10;
+    
+    /** Attribute name for XML document recording world history */
+    static final String LOGFILE_PARAM = "logfile";
+
+    /** Attribute name for the format of the log, "xml" or "binary" */
+    static final String LOGFORMAT_PARAM = "logformat";
+
+    /** Attribute name for number of steps between full keyframes in the log */
+    static final String KEYFRAME_PARAM = "keyframes";
+
+    /** Boolean attribute for whether agents may deliberate in parallel */
+    static final String PARALLEL_PARAM = "parallel";
+
+    /** Attribute name for how many cells away agents can see walls */
+    static final String SIGHT_PARAM = "sight";
+
+    /** Boolean attribute for whether to stop a run once the world repeats a state */
+    static final String CYCLES_PARAM = "stopcycles";
+
+    /** Attribute name for a maze file to read the walls from in place */
+    static final String MAZEFILE_PARAM = "mazefile";
+
+    /** Headings by clockwise index */
+    private static final Agent.Heading[] HEADINGS = new Agent.Heading[WallMask.SIDES];
+    static {
+        for (Agent.Heading h : Agent.Heading.values())
+            HEADINGS[h.clockwise] = h;
+    }
+
+    /** Numbers recorded for each agent in a world state, see recordState */
+    private static final int STATE_FIELDS = 5;
+
+    /** Fewest agents worth handing to one parallel deliberation task */
+    static final int MIN_AGENTS_PER_TASK = 16;
+
+    /** Number of threads used for parallel deliberation */
+    static final int DELIBERATION_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Threads shared by all worlds for parallel deliberation, created on first use */
+    private static ExecutorService deliberationPool = null;
+
+    /** Attribute name for number of log records between flushes to disk */
+    static final String FLUSH_PARAM = "flush";
+
+    /** Boolean attribute says whether to do simulation */
+    static final String RUNNABLE_PARAM = "runnable";
+
+    /** Boolean attribute for wheter to visualize debugging info */
+    static final String DEBUG_PARAM = "debug";
+
+    /** Element tag for delay in replaying log data */
+    static final String WAIT_NAME = "wait";
+
+    /** Attribute name for amount of delay, in milliseconds */
+    static final String WAIT_INTERVAL = "time";
+
+    /** Attribute name for amount of delay, in milliseconds */
+    static final String REPLAY_INTERVAL = "replay";
+
+    /** Delay initiated by waiting when nothing specified, gives 50fps */
+    static final int DEFAULT_WAIT = 50;
+
+    /** Element tag for state giving snapshot of world history */
+    static final String STATE_NAME = "state";
+
+    /** Attribute for index of state */
+    static final String STEP_NAME = "step";
+
+    /** Element tag for death */
+    static final String DIE_NAME = "kill";
+
+    /**
+     * Instance members
+     */
+
+    /** Horizontal extent of the environment, in pixels */
+    private int width;
+    /** Vertical extent of the environment, in pixels */
+    private int height;
+    /** All the active entities that "live" in the world */
+    private AgentTable agents;
+    /** How big the maze is */
+    private int cells;
+    /** Where there are horizontal walls, cells x (cells + 1) */
+    private WallGrid beams;
+    /** Where there are vertical walls, (cells + 1) x cells */
+    private WallGrid poles;
+    /** Maze file the walls are read from in place, null if walls are added one by one */
+    private MappedMaze maze;
+    /** Walls around each cell, kept in step with beams and poles; null for a maze file */
+    private WallMask cellWalls;
+    /** Number of walls added so far, so displays can tell when to draw them again */
+    private volatile int wallVersion;
+    /** Distance to the next wall from each cell, null until needed or after walls change */
+    private volatile WallDistances distances;
+    /** Whether distances may be built, false for a maze file or a maze too big for them */
+    private boolean tabulate;
+    
+    /** Where dynamaics history should be written, null means don't write */
+    private String logfile;
+    /** Open log file while logging is in progress */
+    private LogSink log;
+    /** Whether to record history as a binary trace rather than XML */
+    private boolean binaryLog;
+    /** Binary record writer on the open log file, null when logging XML */
+    private BinaryTrace trace;
+    /** Steps between full descriptions of all agents in the XML log, 0 for none */
+    private int keyframeInterval;
+    /** Where keyframe positions are recorded, null when not indexing */
+    private LogIndex index;
+    /** How many log records to buffer before writing them to disk */
+    private int flushInterval;
+    /** If runnable is false this is inert history data */
+    private boolean runnable;
+    /** Default amount of time to wait between steps of simulation */
+    private int delay;
+    /** Time to wait between steps in replay */
+    private int replay;
+    /** Whether to visualize debugging info */
+    private boolean debug;
+    /** Whether any agent has bumped into a wall in this time step */
+    private boolean bumped;
+    /** How many moves have been stopped by a wall so far */
+    private int bumpCount;
+    /** How many steps of simulation have been run */
+    private int stepCount;
+    /** Whether an agent has made it out of the maze */
+    private boolean escaped;
+    /** If true the world is never displayed, so skip publishing steps */
+    private boolean headless;
+    /** Whether agents deliberate on several threads at once */
+    private boolean parallel;
+    /** How many cells away agents can see walls */
+    private int sight;
+    /** Whether to look for repeated world states */
+    private boolean stopCycles;
+    /** Whether the simulation stopped because the world repeated a state */
+    private boolean trapped;
+    /** The state of the world after the current step, see recordState */
+    private long[] cycleState;
+    /** Length of the state in cycleState */
+    private int cycleLength;
+    /** Earlier state that later states are compared against */
+    private long[] cycleMark;
+    /** Length of the state in cycleMark, -1 before one is taken */
+    private int cycleMarkLength;
+    /** Steps since cycleMark was taken */
+    private int sinceMark;
+    /** Steps to wait before taking the next mark */
+    private int markInterval;
+    /** Default attributes for new agents in this world */
+    private final AgentDefaults agentDefaults;
+    /**
+     * State to display in place of the live agents, if any: the latest
+     * step published by the simulation, or the step being replayed
+     */
+    private volatile WorldSnapshot shown;
+
+    /**
+     * Instance code
+     */
+
+    /**
+     * Constructor for new environments
+     * 
+     * @param width horizontal extent of the environment
+     * @param height vertical extent of the environment
+     * @param log file name to record dynamics history
+     * @param run true to get new dynamics, false to replay old ones
+     * @param wait number of milliseconds to delay between simulation steps
+     */
+    public World(int width, int height, int c, String log, boolean run, int wait, int rep, boolean debug) {
+        this(width, height, c, null, log, run, wait, rep, debug);
+    }
+
+    /**
+     * Constructor for environments whose walls are read in place
+     * from a maze file.  Nothing is built for the walls, so this
+     * takes the same time however big the maze is, and walls
+     * cannot be added.
+     * 
+     * @param width horizontal extent of the environment
+     * @param height vertical extent of the environment
+     * @param m maze file to read the walls from
+     * @param log file name to record dynamics history
+     * @param run true to get new dynamics, false to replay old ones
+     * @param wait number of milliseconds to delay between simulation steps
+     */
+    public World(int width, int height, MappedMaze m, String log, boolean run, int wait, int rep, boolean debug) {
+        this(width, height, m.getDimension(), m, log, run, wait, rep, debug);
+    }
+
+    /**
+     * Constructor shared by both kinds of environment
+     */
+    private World(int width, int height, int c, MappedMaze m, String log, boolean run, int wait, int rep, boolean debug) {
+        this.width = width;
+        this.height = height;
+        cells = c;
+        maze = m;
+        if (m == null) {
+            beams = new WallPlane(cells, cells+1);
+            poles = new WallPlane(cells+1, cells);
+            cellWalls = new WallMask(cells, cells);
+        } else {
+            beams = m.getBeams();
+            poles = m.getPoles();
+            cellWalls = null;
+        }
+        distances = null;
+        tabulate = m == null && WallDistances.fits(cells);
+        wallVersion = 0;
+        sight = 1;
+        logfile = log;
+        this.log = null;
+        binaryLog = false;
+        trace = null;
+        keyframeInterval = LogIndex.DEFAULT_KEYFRAME_INTERVAL;
+        index = null;
+        flushInterval = LogSink.DEFAULT_FLUSH_INTERVAL;
+        runnable = run;
+        delay = wait;
+        replay = rep;
+        agents = new AgentTable();
+        this.debug = debug;
+        stepCount = 0;
+        bumpCount = 0;
+        bumped = false;
+        escaped = false;
+        headless = false;
+        parallel = false;
+        stopCycles = false;
+        trapped = false;
+        cycleState = new long[0];
+        cycleLength = 0;
+        cycleMark = new long[0];
+        cycleMarkLength = -1;
+        sinceMark = 0;
+        markInterval = 1;
+        agentDefaults = new AgentDefaults();
+        shown = null;
+    }
+
+    /**
+     * Getters and setters
+     */
+
+    /**
+     * Return the number of possible locations (along x and y)
+     * in the maze
+     */
+    public int getDimension() {
+        return cells;   
+    }
+    
+    /**
+     * @return horizontal extent of the environment, in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return vertical extent of the environment, in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Should the display show debugging information
+     * @return true to show each step and what agents report
+     */
+    public boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * Is there a horizontal wall at (x, y)
+     * @param x cell the beam runs along, 0 <= x < cells
+     * @param y line the beam lies on, 0 <= y <= cells
+     * @return true if there is a beam
+     */
+    public boolean hasBeam(int x, int y) {
+        return beams.get(x, y);
+    }
+
+    /**
+     * Is there a vertical wall at (x, y)
+     * @param x line the pole lies on, 0 <= x <= cells
+     * @param y cell the pole runs along, 0 <= y < cells
+     * @return true if there is a pole
+     */
+    public boolean hasPole(int x, int y) {
+        return poles.get(x, y);
+    }
+
+    /**
+     * Count of walls added so far; a display that remembers
+     * it can tell whether the walls need drawing again
+     * @return number of walls added
+     */
+    public int getWallVersion() {
+        return wallVersion;
+    }
+
+    /**
+     * Get what step the simulation has gotten to
+     * @return current step value of simulation
+     */
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Set what step the simulation has gotten to
+     * @returns current step value of simulation
+     */
+    public void setStepCount(int s) {
+        stepCount = s;
+    }
+
+    /**
+     * Should this environment display new dynamics
+     * @return true if yes, false if replaying old data
+     */
+    public boolean isRunnable() {
+        return runnable;
+    }
+
+    /**
+     * Has some agent found its way out of the maze
+     * @return true if the simulation stopped because of an escape
+     */
+    public boolean hasEscaped() {
+        return escaped;
+    }
+
+    /**
+     * Has the world gone back to a state it was in before
+     * @return true if the simulation stopped because it would repeat forever
+     */
+    public boolean isTrapped() {
+        return trapped;
+    }
+
+    /**
+     * Say whether stepping should stop once the world gets back
+     * to a state it was in before.  Simulation is deterministic,
+     * so from then on the same steps would repeat forever.
+     * @param stop true to stop runs that cycle
+     */
+    public void setStopCycles(boolean stop) {
+        stopCycles = stop;
+    }
+
+    /**
+     * Default attributes used for agents created in this world,
+     * which defaults elements in the world spec change
+     * @return the world's defaults
+     */
+    public AgentDefaults getAgentDefaults() {
+        return agentDefaults;
+    }
+
+    /**
+     * How often agents have run into walls
+     * @return number of moves stopped by a wall so far
+     */
+    public int getBumpCount() {
+        return bumpCount;
+    }
+
+    /**
+     * Choose the file to record dynamics history in.
+     * Has no effect once logging has started.
+     * @param log file name, or null to keep no log
+     */
+    public void setLogfile(String log) {
+        if (this.log == null)
+            logfile = log;
+    }
+
+    /**
+     * Say whether this world is simulated without any display,
+     * in which case stepping does not publish snapshots.
+     * @param h true to run without a display
+     */
+    public void setHeadless(boolean h) {
+        headless = h;
+    }
+
+    /**
+     * Say how often the log should be written out to disk
+     * @param n number of log records between flushes, 0 to flush only at the end
+     */
+    public void setFlushInterval(int n) {
+        flushInterval = n;
+    }
+
+    /**
+     * Choose how history is recorded
+     * @param binary true to write a compact binary trace, false to write XML
+     * @see BinaryTrace
+     */
+    public void setBinaryLog(boolean binary) {
+        binaryLog = binary;
+    }
+
+    /**
+     * Say how often the XML log should describe every agent in full,
+     * so that replay can start from the nearest such keyframe.
+     * Logs are only indexed if this is set before logging starts.
+     * @param n steps between keyframes, 0 for no keyframes or index
+     * @see LogIndex
+     */
+    public void setKeyframeInterval(int n) {
+        keyframeInterval = n;
+    }
+
+    /**
+     * Say whether agents should deliberate in parallel.  Deliberation
+     * only reads the world, so with many agents it can be spread over
+     * several threads; agents still act one at a time, in order, so
+     * the results are the same as deliberating sequentially.
+     * makeAgentThink and the agents' deliberate methods must then be
+     * safe to run for different agents at the same time.
+     * @param p true to deliberate in parallel
+     */
+    public void setParallel(boolean p) {
+        parallel = p;
+    }
+
+    /**
+     * Say how far agents can see.  With the default of 1 they
+     * see only the walls right next to them; further than that
+     * they are told how far away the nearest wall is in each
+     * direction, if it is within sight.
+     * @param cellsAway greatest distance at which a wall is seen
+     */
+    public void setSight(int cellsAway) {
+        sight = Math.max(1, cellsAway);
+    }
+
+    /**
+     * @return amount of time in milliseconds to wait between simulation steps
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Attach a new agent to the world environment
+     * @param a agent object to add
+     */
+    public void addAgent(Agent a) {
+        agents.add(a);
+    }
+
+    /**
+     * Remove an agent from the world environment.
+     * Useful if a has died or been eaten.
+     * 
+     * @param a agent object to remove.
+     */
+    public void removeAgent(Agent a) {
+        agents.remove(a);
+    }
+
+    /**
+     * Find the agent by the specified id
+     * 
+     * @param id creation index for some agent associated with the world
+     * @return agent object if found, null otherwise
+     */
+    public Agent getAgent(int id) {
+        return agents.getById(id);
+    }
+    
+    /**
+     * Add a beam 
+     * 
+     * @param x coordinate of left corner of beam
+     * @param y coordinate of beam
+     */
+    public void addBeam(int x, int y) {
+    	if (maze != null)
+    		System.err.println("Beam " + x + " " + y + " ignored: walls come from " + maze.getPath());
+    	else if (x < 0 || y < 0 || x >= cells || y >= cells + 1)
+    		System.err.println("Beam coordinates " + x + " " + y + " are out of range.\n");
+    	else {
+    		((WallPlane) beams).set(x, y);
+    		distances = null;
+    		wallVersion++;
+    		if (y < cells)
+    			cellWalls.add(x, y, 1 << Agent.Heading.NORTH.clockwise);
+    		if (y > 0)
+    			cellWalls.add(x, y - 1, 1 << Agent.Heading.SOUTH.clockwise);
+    	}
+    }
+    
+    /**
+     * Add a pole 
+     * 
+     * @param x coordinate of corner of pole
+     * @param y coordinate of top corner of pole
+     */
+    public void addPole(int x, int y) {
+    	if (maze != null)
+    		System.err.println("Pole " + x + " " + y + " ignored: walls come from " + maze.getPath());
+    	else if (x < 0 || y < 0 || x >= cells + 1 || y >= cells)
+    		System.err.println("Beam coordinates " + x + " " + y + " are out of range.\n");
+    	else {
+    		((WallPlane) poles).set(x, y);
+    		distances = null;
+    		wallVersion++;
+    		if (x < cells)
+    			cellWalls.add(x, y, 1 << Agent.Heading.WEST.clockwise);
+    		if (x > 0)
+    			cellWalls.add(x - 1, y, 1 << Agent.Heading.EAST.clockwise);
+    	}
+    }
+    
+    /**
+     * Producing change logs
+     */
+
+    /**
+     * Open XML log file - if world is supposed to have one -
+     * and write header information giving world parameters.
+     * Then describe each of the agents in the world,
+     * in complete detail, giving the initial state
+     * of the simulation.  The file stays open until
+     * logging is finished.
+     */
+    public synchronized void startLogging() {
+        if (logfile != null) {
+            try {
+                log = new LogSink(logfile, flushInterval);
+                if (binaryLog) {
+                    startTrace();
+                    return;
+                }
+                BufferedWriter out = log.getWriter();
+                out.write("<?xml version=\"1.0\"?>\n\n");
+                out.write("<" + XML_NAME + 
+                        " xmlns=\"" + XMLNS +
+                        "\" " + WIDTH_PARAM +
+                        "=\"" + Integer.toString(getWidth()) +
+                        "\" " + HEIGHT_PARAM +
+                        "=\"" + Integer.toString(getHeight()) +
+                        "\" " + CELL_PARAM +
+                        "=\"" + Integer.toString(cells) +
+                        (maze != null ? "\" " + MAZEFILE_PARAM + "=\"" + maze.getPath() : "") +
+                        "\" " + RUNNABLE_PARAM + 
+                        "=\"false\" " + DEBUG_PARAM +
+                        "=\"true\" >\n"
+                );
+                // the walls of a maze file stay in the file
+                for (int i = 0; maze == null && i < cells; i++)
+                	for (int j = 0; j < cells + 1; j++) {
+                		if (beams.get(i, j))
+                			out.write("<" + MazeReader.BEAM_NAME +
+                					" " + MazeReader.X_PARAM +
+                					"=\"" + Integer.toString(i) +
+                					"\" " + MazeReader.Y_PARAM +
+                					"=\"" + Integer.toString(j) +
+                					"\" />\n");
+                	}
+                for (int i = 0; maze == null && i < cells + 1; i++)
+                	for (int j = 0; j < cells; j++) {
+                		if (poles.get(i, j))
+                			out.write("<" + MazeReader.POLE_NAME +
+                					" " + MazeReader.X_PARAM +
+                					"=\"" + Integer.toString(i) +
+                					"\" " + MazeReader.Y_PARAM +
+                					"=\"" + Integer.toString(j) +
+                					"\" />\n");
+                	}
+                if (keyframeInterval > 0) {
+                    index = new LogIndex(logfile);
+                    index.add(stepCount, log.position());
+                }
+                out.write("  <" + STATE_NAME + " " +
+                        STEP_NAME + "=\"" + Integer.toString(stepCount) + "\" >\n");
+                for (Agent a: agents) {
+                    a.log(out);
+                }
+                out.write("  </" + STATE_NAME + ">\n");
+                out.write("  <" + WAIT_NAME + " " + WAIT_INTERVAL + "=\"" +
+                        Integer.toString(replay) + "\"/>\n");
+                log.endRecord();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    /**
+     * Write the header of a binary trace: world parameters,
+     * walls, and the agents with their initial state.  The
+     * walls of a maze file stay in the file.
+     * 
+     * @throws IOException if writing fails
+     */
+    private void startTrace() throws IOException {
+        trace = new BinaryTrace(log.getStream());
+        trace.writeHeader(getWidth(), getHeight(), cells, replay);
+        trace.writeMazeFile(maze != null ? maze.getPath() : null);
+        if (maze == null) {
+            trace.writeWallCount(beams.count());
+            for (int i = 0; i < cells; i++)
+                for (int j = 0; j < cells + 1; j++)
+                    if (beams.get(i, j))
+                        trace.writeWall(i, j);
+            trace.writeWallCount(poles.count());
+            for (int i = 0; i < cells + 1; i++)
+                for (int j = 0; j < cells; j++)
+                    if (poles.get(i, j))
+                        trace.writeWall(i, j);
+        }
+        trace.writeRosterSize(agents.size());
+        for (Agent a: agents) {
+            trace.writeRosterEntry(a);
+        }
+        trace.writeStep(stepCount);
+        for (Agent a: agents) {
+            trace.writeAgent(a);
+        }
+        trace.writeWait(replay);
+        log.endRecord();
+    }
+
+    /**
+     * Write final close ending main XML element 
+     * to the log file - if world has one - and close it.
+     */ 
+    public synchronized void finishLogging() {
+        if (log != null) {
+            try {
+                if (trace == null)
+                    log.getWriter().write("</" + XML_NAME + ">\n\n");
+                log.close();
+                if (index != null)
+                    index.close();
+            } catch (IOException e) {
+            }
+            log = null;
+            trace = null;
+            index = null;
+        }
+        logfile = null;
+    }
+
+    /**
+     * Append to the log file - if world has one - a 
+     * state description describing the dynamic parameters
+     * of all the agents in the environment at the current
+     * time step.  Every so often the agents are described
+     * in full instead, and the position indexed, so replay
+     * can start from there.
+     */
+    synchronized void logStep() {
+        if (log != null) {
+            try {
+                if (trace != null) {
+                    trace.writeStep(stepCount);
+                    for (int i = 0; i < agents.size(); i++) {
+                        trace.writeAgent(agents.get(i));
+                    }
+                    trace.writeWait(replay);
+                    log.endRecord();
+                    return;
+                }
+                boolean keyframe = index != null && stepCount % keyframeInterval == 0;
+                if (keyframe)
+                    index.add(stepCount, log.position());
+                BufferedWriter out = log.getWriter();
+                out.write("  <" + STATE_NAME + " " +
+                        STEP_NAME + "=\"" + Integer.toString(stepCount) + "\">\n");
+                for (int i = 0; i < agents.size(); i++) {
+                    Agent a = agents.get(i);
+                    if (keyframe)
+                        a.log(out);
+                    else
+                        a.changelog(out);
+                }
+                out.write("  </" + STATE_NAME + ">\n");
+                out.write("  <" + WAIT_NAME + " " + WAIT_INTERVAL + "=\"" +
+                        Integer.toString(replay) + "\"/>\n");
+                log.endRecord();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    /**
+     * Append to the log file - if world has one - 
+     * instructions to remove display of agent a
+     * for subsequent steps of the simulation.
+     * @param a agent that should not be rendered in future steps
+     */
+    synchronized void logDeath(Agent a) {
+        if (log != null) {
+            try {
+                if (trace != null)
+                    trace.writeDeath(a.getId());
+                else
+                    log.getWriter().write("  <" + DIE_NAME + " " + Agent.ID_PARAM + "=\"" + Integer.toString(a.getId()) + "\" />\n");
+                log.endRecord();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+
+    /**
+     * Record where every agent is right now, for display later.
+     * 
+     * @param wait how long the snapshot should be shown, in milliseconds
+     * @return copy of the current state of the agents
+     */
+    public WorldSnapshot snapshot(int wait) {
+        return new WorldSnapshot(stepCount, wait, agents);
+    }
+
+    /**
+     * Display the agents as recorded in s rather than as they
+     * are now, so the world can go on changing while s is shown.
+     * 
+     * @param s snapshot to display, or null to display the live agents
+     */
+    public void show(WorldSnapshot s) {
+        shown = s;
+    }
+
+    /**
+     * Make the current state of the agents the one the display
+     * shows.  The simulation calls this after each step, so the
+     * display never looks at agents while they are changing;
+     * painting happens at its own pace, drawing whichever step
+     * was published last, and steps published in between
+     * frames are never drawn.
+     */
+    public void publish() {
+        if (!headless)
+            shown = snapshot(0);
+    }
+
+    /**
+     * Get the snapshot the display should draw
+     * 
+     * @return the snapshot last shown or published, or null to
+     *         draw the live agents
+     */
+    public WorldSnapshot getShown() {
+        return shown;
+    }
+
+    /**
+     * Constructing percepts
+     * The logic needs to examine whether 
+     * a wall is present next to the agent
+     * at a specific bearing, given the
+     * direction the agent is headed.
+     */
+    
+    /**
+     * Work out the walls around cell (x, y) from the wall planes,
+     * for maze files, which have no mask, and for locations
+     * outside the maze that the mask does not cover.
+     */
+    private int wallsFromPlanes(int x, int y) {
+        int m = 0;
+        if (x >= 0 && x < cells && y >= 0 && y <= cells) {
+            if (beams.get(x, y))
+                m |= 1 << Agent.Heading.NORTH.clockwise;
+            if (y + 1 <= cells && beams.get(x, y + 1))
+                m |= 1 << Agent.Heading.SOUTH.clockwise;
+        }
+        if (y >= 0 && y < cells && x >= 0 && x <= cells) {
+            if (poles.get(x, y))
+                m |= 1 << Agent.Heading.WEST.clockwise;
+            if (x + 1 <= cells && poles.get(x + 1, y))
+                m |= 1 << Agent.Heading.EAST.clockwise;
+        }
+        return m;
+    }
+
+    /**
+     * Find the walls next to an agent, relative to
+     * the direction it is headed: one load from the
+     * wall mask and a rotation by the heading.
+     * 
+     * @param a agent whose surroundings are wanted
+     * @return mask with bit d.clockwise set when there
+     *         is a wall in direction d from the agent
+     */
+    protected int wallsAround(Agent a) {
+        int x = a.getLocX();
+        int y = a.getLocY();
+        return WallMask.rotate(wallsAt(x, y), a.getHeading().clockwise);
+    }
+
+    /**
+     * Get the walls around cell (x, y): one load from the wall
+     * mask for cells of a maze built in memory, or a look at
+     * the four walls otherwise.
+     * 
+     * @return mask with bit h.clockwise set when there is a
+     *         wall in heading h from the cell
+     */
+    private int wallsAt(int x, int y) {
+        if (cellWalls != null && x >= 0 && y >= 0 && x < cells && y < cells)
+            return cellWalls.get(x, y);
+        return wallsFromPlanes(x, y);
+    }
+
+    /**
+     * construct a percept showing a wall
+     * present in direction d from the agent
+     * if this is the case.
+     * 
+     * @param a agent whose observations are being modeled
+     * @param d direction to look, relative to the agent
+     * @return percept of wall, or null if there is no wall that way
+     */
+    protected Percept look(Agent a, Agent.Direction d) {
+        if ((wallsAround(a) & (1 << d.clockwise)) == 0)
+            return null;
+        return Percept.of(Percept.ObjectCategory.OBSTACLE, 1, d);
+    }
+
+    /**
+     * construct a percept showing a wall
+     * present ahead of the agent if
+     * this is the case.
+     * 
+     * @param agent whose observations are being modeled
+     * @return percept of wall, or null if no wall is ahead
+     */
+    protected Percept lookAhead(Agent a) {
+        return look(a, Agent.Direction.AHEAD);
+    }
+    
+    /**
+     * construct a percept showing a wall
+     * present to the left of the agent if
+     * this is the case.
+     * 
+     * @param agent whose observations are being modeled
+     * @return percept of wall, or null if no wall is to the left
+     */
+    protected Percept lookLeft(Agent a) {
+        return look(a, Agent.Direction.LEFT);
+    }
+
+    /**
+     * construct a percept showing a wall
+     * present to the right of the agent if
+     * this is the case.
+     * 
+     * @param agent whose observations are being modeled
+     * @return percept of wall, or null if no wall is to the right
+     */
+    protected Percept lookRight(Agent a) {
+        return look(a, Agent.Direction.RIGHT);
+    }
+
+    /**
+     * construct a percept showing a wall
+     * present behind of the agent if
+     * this is the case.
+     * 
+     * @param agent whose observations are being modeled
+     * @return percept of wall, or null if no wall is ahead
+     */
+    protected Percept lookBehind(Agent a) {
+        return look(a, Agent.Direction.BEHIND);
+    }
+    
+    /**
+     * Run a step of deliberation on Agent a.
+     * Construct the percept A gets now and
+     * feed it to A's deliberation method.
+     * Override this method to add visibility checks
+     * and other aspects of simulated visual cognition.
+     * A can see adjacent walls in all directions,
+     * which are handed over as a mask; agents that
+     * want a list of percepts get one from
+     * Agent.deliberate(int).  When A can see further,
+     * it gets a percept giving the distance to the
+     * nearest wall in each direction instead.
+     * 
+     * @param a One of the agents in the world
+     */
+    protected void makeAgentThink(Agent a) {
+        if (sight <= 1) {
+            a.deliberate(wallsAround(a));
+            return;
+        }
+        List<Percept> ps = a.perceptBuffer;
+        ps.clear();
+        int h = a.getHeading().clockwise;
+        for (Agent.Direction d : Agent.DIRECTIONS) {
+            Agent.Heading toward = HEADINGS[(h + d.clockwise) & 3];
+            int n = distanceToWall(a.getLocX(), a.getLocY(), toward);
+            if (n != WallDistances.UNBOUNDED && n < sight)
+                ps.add(Percept.of(Percept.ObjectCategory.OBSTACLE, n + 1, d));
+        }
+        a.deliberate(ps);
+    }
+
+    /**
+     * Process the simulated input to agent A's effectors
+     * designed to get A to location (newX, newY) in the world.
+     * Does not allow the agent to go through walls: a move of
+     * several cells stops in front of the first wall in its way.
+     * 
+     * @param a Agent who wants to move
+     * @param newX Desired updated horizontal coordinate
+     * @param newY Desired updated vertical coordinate
+     */
+    public void tryToMove(Agent a, int newX, int newY) {
+    	int x = a.getLocX();
+    	int y = a.getLocY();
+    	int wantX = newX;
+    	int wantY = newY;
+    	if (newX != x) {
+    		Agent.Heading h = newX > x ? Agent.Heading.EAST : Agent.Heading.WEST;
+    		newX = x + stepsClear(x, y, h, Math.abs(newX - x)) * h.dx;
+    	}
+    	if (newY != y) {
+    		Agent.Heading h = newY > y ? Agent.Heading.SOUTH : Agent.Heading.NORTH;
+    		newY = y + stepsClear(x, y, h, Math.abs(newY - y)) * h.dy;
+    	}
+    	
+    	if (newX != wantX || newY != wantY) {
+    		bumped = true;
+    		bumpCount++;
+    	}
+    	a.setLocX(newX);
+    	a.setLocY(newY);
+    	
+    	// You escape!
+    	if (newX < 0 || newX >= cells || newY < 0 || newY >= cells) {
+    		runnable = false;
+    		escaped = true;
+    	}
+    }
+
+    /**
+     * Find how many of the wanted steps from (x, y) in heading h
+     * can be taken before running into a wall.  A single step
+     * only needs the wall mask.
+     */
+    private int stepsClear(int x, int y, Agent.Heading h, int want) {
+    	if (want == 1 && x >= 0 && y >= 0 && x < cells && y < cells)
+    		return (wallsAt(x, y) & (1 << h.clockwise)) != 0 ? 0 : 1;
+    	return Math.min(want, distanceToWall(x, y, h));
+    }
+
+    /**
+     * Find how many steps can be taken from (x, y) in heading h
+     * before running into a wall.  The walls right next to the
+     * cell come from the wall mask; anything further away from the
+     * distance tables, which are built the first time they are
+     * needed, or by looking at the walls one by one if the maze
+     * is too big for them, is read from a maze file, or (x, y)
+     * is outside the maze.
+     * 
+     * @param x horizontal coordinate
+     * @param y vertical coordinate
+     * @param h heading to go in
+     * @return steps to the next wall, or WallDistances.UNBOUNDED
+     *         if the way leads out of the maze
+     */
+    public int distanceToWall(int x, int y, Agent.Heading h) {
+    	boolean inside = x >= 0 && y >= 0 && x < cells && y < cells;
+    	if (inside && (wallsAt(x, y) & (1 << h.clockwise)) != 0)
+    		return 0;
+    	if (inside && tabulate)
+    		return getDistances().get(x, y, h.clockwise);
+    	return scanToWall(x, y, h);
+    }
+
+    /**
+     * Get the distance tables, building them if the walls
+     * have changed since they were last built.
+     */
+    private WallDistances getDistances() {
+    	WallDistances d = distances;
+    	if (d == null) {
+    		synchronized (this) {
+    			d = distances;
+    			if (d == null) {
+    				d = new WallDistances(cells, beams, poles);
+    				distances = d;
+    			}
+    		}
+    	}
+    	return d;
+    }
+
+    /**
+     * Find the distance to the next wall by checking
+     * the walls one at a time.
+     */
+    private int scanToWall(int x, int y, Agent.Heading h) {
+    	int n = 0;
+    	while (true) {
+    		switch (h) {
+    		case NORTH:
+    			if (x < 0 || x >= cells || y < 0 || y > cells)
+    				return WallDistances.UNBOUNDED;
+    			if (beams.get(x, y))
+    				return n;
+    			break;
+    		case SOUTH:
+    			if (x < 0 || x >= cells || y + 1 < 0 || y + 1 > cells)
+    				return WallDistances.UNBOUNDED;
+    			if (beams.get(x, y + 1))
+    				return n;
+    			break;
+    		case WEST:
+    			if (y < 0 || y >= cells || x < 0 || x > cells)
+    				return WallDistances.UNBOUNDED;
+    			if (poles.get(x, y))
+    				return n;
+    			break;
+    		case EAST:
+    			if (y < 0 || y >= cells || x + 1 < 0 || x + 1 > cells)
+    				return WallDistances.UNBOUNDED;
+    			if (poles.get(x + 1, y))
+    				return n;
+    			break;
+    		}
+    		x += h.dx;
+    		y += h.dy;
+    		n++;
+    	}
+    }
+
+    /**
+     * Remove all the agents from the world that
+     * are no longer alive, and log their deaths.
+     */
+    private void removeCorpses() {
+        agents.removeDead(this);
+    }
+
+    /**
+     * Write the state of the world into cycleState: for each agent,
+     * in order, its id, location, heading and whatever else it
+     * remembers.  Two steps with the same record will be followed
+     * by the same steps.
+     */
+    private void recordState() {
+        int n = agents.size() * STATE_FIELDS;
+        if (cycleState.length < n)
+            cycleState = new long[n];
+        int k = 0;
+        for (int i = 0; i < agents.size(); i++) {
+            Agent a = agents.get(i);
+            cycleState[k++] = a.getId();
+            cycleState[k++] = a.getLocX();
+            cycleState[k++] = a.getLocY();
+            cycleState[k++] = a.getHeading().ordinal();
+            cycleState[k++] = a.stateHash();
+        }
+        cycleLength = n;
+    }
+
+    /**
+     * Check whether the world has returned to an earlier state,
+     * using Brent's algorithm: the current state is compared with
+     * one remembered mark, and the mark is moved up to the current
+     * state after 1, 2, 4, 8, ... steps.  Any cycle is found within
+     * about twice its length plus the steps before it starts, using
+     * one saved state.  Stops the simulation if the state repeats.
+     */
+    private void checkForCycle() {
+        recordState();
+        if (cycleLength == cycleMarkLength) {
+            boolean same = true;
+            for (int i = 0; i < cycleLength && same; i++)
+                same = cycleState[i] == cycleMark[i];
+            if (same) {
+                runnable = false;
+                trapped = true;
+                return;
+            }
+        }
+        if (++sinceMark == markInterval) {
+            if (cycleMark.length < cycleLength)
+                cycleMark = new long[cycleState.length];
+            System.arraycopy(cycleState, 0, cycleMark, 0, cycleLength);
+            cycleMarkLength = cycleLength;
+            markInterval *= 2;
+            sinceMark = 0;
+        }
+    }
+
+    /**
+     * Get the threads shared for parallel deliberation,
+     * starting them if this is the first time they are needed.
+     * They are daemon threads, so they never keep the program running.
+     */
+    private static synchronized ExecutorService getDeliberationPool() {
+        if (deliberationPool == null) {
+            deliberationPool = Executors.newFixedThreadPool(DELIBERATION_THREADS,
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "deliberation");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+        return deliberationPool;
+    }
+
+    /**
+     * Have each living agent in a range of the agent table
+     * figure out what there is to do based on the current
+     * state of the world.
+     * 
+     * @param from first slot in the table
+     * @param to slot after the last one
+     */
+    private void think(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Agent agent = agents.get(i);
+            if (agent.isAlive()) {
+		agent.setBumped(false);
+		agent.setMessage(null);
+                makeAgentThink(agent);
+            }
+        }
+    }
+
+    /**
+     * Split the agents into ranges and have them
+     * deliberate on the shared threads, returning
+     * once every agent has decided what to do.
+     */
+    private void thinkInParallel() {
+        int n = agents.size();
+        int tasks = Math.min(DELIBERATION_THREADS, n / MIN_AGENTS_PER_TASK);
+        List<Callable<Object>> work = new ArrayList<Callable<Object>>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            final int from = (int) ((long) n * t / tasks);
+            final int to = (int) ((long) n * (t + 1) / tasks);
+            work.add(new Callable<Object>() {
+                public Object call() {
+                    think(from, to);
+                    return null;
+                }
+            });
+        }
+        try {
+            for (Future<Object> f : getDeliberationPool().invokeAll(work)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Carry out a step of simulation, 
+     * in which all the agents perceive, deliberate, and act,
+     * and the environment carries out the effects of
+     * this behavior.
+     */
+    public void stepWorld() {
+        stepCount++;
+        
+        // For each living agent, figure out what there is to do based on
+        // the current state of the world
+        if (parallel && agents.size() >= 2 * MIN_AGENTS_PER_TASK)
+            thinkInParallel();
+        else
+            think(0, agents.size());
+
+        // For each living agent, in order, update the state of each 
+        // agent based on their decisions
+        for (int i = 0; i < agents.size(); i++) {
+            Agent agent = agents.get(i);
+            if (agent.isAlive()) {
+                agent.act();
+            }
+        }
+
+        logStep();
+        removeCorpses();
+        // Give feedback to the designer of the world
+        publish();
+        if (stopCycles && runnable)
+            checkForCycle();
+    }
+}
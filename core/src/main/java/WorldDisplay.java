@@ -0,0 +1,26 @@
+/**
+ * Maze Assignment: WorldDisplay.java
+ *
+ * Somewhere to show a world while it is read from a spec or
+ * log.  Keeping the reader behind this interface lets worlds
+ * be built and simulated without loading any window toolkit.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public interface WorldDisplay {
+
+    /**
+     * Prepare to show a world that has just been created.
+     * Its walls and agents are added afterwards.
+     *
+     * @param w the new world
+     */
+    void attach(World w);
+
+    /**
+     * A complete state of the world has been read: make
+     * sure it is on screen and up to date.
+     */
+    void refresh();
+}
@@ -0,0 +1,79 @@
+/**
+ * Maze Assignment: WorldSnapshot.java
+ *
+ * Immutable record of where every agent in a world was at
+ * one step, so the step can be displayed after the world
+ * itself has moved on.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class WorldSnapshot {
+
+    /** Step of the simulation the snapshot was taken at */
+    private final int step;
+
+    /** Milliseconds to show this snapshot for before the next one */
+    private final int wait;
+
+    /** The agents present, used to know how to draw each one */
+    private final Agent[] agents;
+
+    /** Copies of the agents' dynamic attributes at this step */
+    private final Agent.DynamicAgentAttributes[] states;
+
+    /**
+     * Constructor: copy the current state of the passed agents
+     *
+     * @param step step of the simulation being recorded
+     * @param wait how long to display this step, in milliseconds
+     * @param live the agents in the world
+     */
+    public WorldSnapshot(int step, int wait, AgentTable live) {
+        this.step = step;
+        this.wait = wait;
+        agents = new Agent[live.size()];
+        states = new Agent.DynamicAgentAttributes[agents.length];
+        for (int i = 0; i < agents.length; i++) {
+            agents[i] = live.get(i);
+            states[i] = new Agent.DynamicAgentAttributes(agents[i].status);
+        }
+    }
+
+    /**
+     * @return step of the simulation the snapshot was taken at
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return how long to display this step, in milliseconds
+     */
+    public int getWait() {
+        return wait;
+    }
+
+    /**
+     * @return number of agents recorded
+     */
+    public int size() {
+        return agents.length;
+    }
+
+    /**
+     * @param i index of a recorded agent
+     * @return the agent itself
+     */
+    public Agent getAgent(int i) {
+        return agents[i];
+    }
+
+    /**
+     * @param i index of a recorded agent
+     * @return the agent's dynamic attributes at this step
+     */
+    public Agent.DynamicAgentAttributes getState(int i) {
+        return states[i];
+    }
+}
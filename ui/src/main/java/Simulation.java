@@ -0,0 +1,230 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+/**
+ * Maze Assignment: Simulation.java
+ *
+ * Simulation manages a window, file I/O, and simulation stepping
+ * for a test scenario describing agents acting in an environment.
+ * 
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class Simulation extends Frame implements WorldDisplay {
+
+    /**
+     * Java AWT components are required to be serializable,
+     * and therefore require a long int id indicating what 
+     * version of the code the serialization comes from.
+     */
+    private static final long serialVersionUID = 1L;
+    
+    /**
+     * Holds the world that this object will be simulating.
+     * @see World
+     */
+    private World w = null;
+
+    /** Where the world being read is shown, null until there is one */
+    private WorldView view = null;
+    
+    /**
+     * Constructor: creates the frame and then adds
+     * cleanup code hiding the window, terminating
+     * the simulation, releasing graphics resources,
+     * and quitting.
+     */
+    public  Simulation(String file) {
+        super("Maze explorer (file: " + file + ")"); 
+
+        // exit cleanly 
+        addWindowListener(new WindowAdapter() { 
+            public void windowClosing(WindowEvent e) { 
+                setVisible(false); 
+                if (w != null) {
+                    w.finishLogging();
+                }
+                w = null;
+                dispose(); 
+                System.exit(0); 
+            } 
+        }); 
+    }
+    
+    /**
+     * Put a world that has just been read in this window.
+     * 
+     * @param world the new world
+     */
+    public void attach(World world) {
+        view = new WorldView(world);
+        setSize(world.getWidth(), world.getHeight());
+        add(view);
+        pack();
+    }
+
+    /**
+     * Show the window, with the world as it is now.
+     */
+    public void refresh() {
+        setVisible(true);
+        if (view != null)
+            view.repaint();
+    }
+
+    /**
+     * We create a Cleanup object as a handler for
+     * shutdown events (triggered for example by
+     * hitting Control-C at the command line).
+     * This is called a shutdown hook.
+     * The code here makes sure that any log file
+     * being created remains valid XML and is
+     * written out in full.
+     */
+    class Cleanup extends Thread {
+        public void run() {
+            if (w != null) {
+                w.finishLogging();
+            }
+        }       
+    }
+    
+    /**
+     * Let the keyboard control playback of a recorded log:
+     * space pauses and resumes, 1, 2 and 0 play at normal,
+     * double and ten times speed, and m plays as fast as possible.
+     * 
+     * @param r engine playing the log
+     */
+    private void addReplayControls(final ReplayEngine r) {
+        KeyAdapter keys = new KeyAdapter() {
+            public void keyTyped(KeyEvent e) {
+                switch (e.getKeyChar()) {
+                case ' ':
+                    if (r.isPaused())
+                        r.resume();
+                    else
+                        r.pause();
+                    break;
+                case '1':
+                    r.setSpeed(1);
+                    break;
+                case '2':
+                    r.setSpeed(2);
+                    break;
+                case '0':
+                    r.setSpeed(10);
+                    break;
+                case 'm':
+                    r.setSpeed(ReplayEngine.MAX_SPEED);
+                    break;
+                }
+            }
+        };
+        addKeyListener(keys);
+        if (view != null)
+            view.addKeyListener(keys);
+    }
+
+    /**
+     * Command-line interface to simulation class.
+     * 
+     * @param args array of strings specified on the 
+     *             command line; should specify a
+     *             single XML specification of a world,
+     *             optionally followed by a replay speed
+     *             (a multiple of the recorded rate, or max)
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage error: run as <program> <specfile> [speed] for a single XML world spec.");
+            return;
+        }
+        double speed = 1;
+        if (args.length == 2) {
+            try {
+                speed = "max".equals(args[1]) ? ReplayEngine.MAX_SPEED : Double.parseDouble(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("Bad replay speed " + args[1]);
+                return;
+            }
+        }
+        try {
+            Simulation s = new Simulation(args[0]);
+
+            // Clean up if control-C is pressed
+            Runtime.getRuntime().addShutdownHook(s.new Cleanup());
+            
+            // Set up SAX reader, which processes XML objects as file is read.
+            XMLReader xr = XMLReaderFactory.createXMLReader();      
+            MazeReader handler = new MazeReader(s);
+            ReplayEngine replay = new ReplayEngine();
+            replay.setSpeed(speed);
+            handler.setReplay(replay);
+            xr.setContentHandler(handler);
+            xr.setErrorHandler(handler);
+            
+            // Parse the XML in the background, decompressing and converting traces on the fly
+            replay.parse(xr, LogSource.open(args[0]));
+            replay.awaitReady();
+
+            // Play back recorded logs while the rest is read
+            World log = handler.getWorld();
+            if (log != null && !log.isRunnable()) {
+                s.w = log;
+                s.addReplayControls(replay);
+                replay.play(log);
+                s.setVisible(true);
+                replay.awaitFinished();
+            }
+            replay.awaitParsed();
+
+            // Show the simulation on screen, if you haven't already
+            s.w = handler.getWorld();
+            if (s.w == null)
+            	s.pack();
+            s.setVisible(true);
+
+            // Get ready to record activities
+            if (s.w != null) 
+                s.w.startLogging();
+
+            // From here on the display only draws published steps
+            if (s.w != null) {
+                s.w.publish();
+                s.view.repaint();
+            }
+
+            // Run any simulation indefinitely, at the rate the spec asks for
+            if (s.w != null && s.w.isRunnable()) {
+                SimulationClock clock = new SimulationClock(s.w);
+                clock.run();
+                if (s.w.isTrapped())
+                    System.out.println(args[0] + ": trapped, repeating itself after "
+                            + s.w.getStepCount() + " steps");
+                if (clock.getLateSteps() > 0)
+                    System.err.println(clock.getLateSteps() + " of " + clock.getSteps()
+                            + " steps ran late, by up to "
+                            + String.format("%.1f", clock.getWorstLateness()) + " ms");
+            }
+            
+            // Clean up if the world spec did not want a simulation
+            s.processWindowEvent(new WindowEvent(s, WindowEvent.WINDOW_CLOSING));
+            
+        } catch (SAXException e) {
+            System.err.println(e.getMessage());
+        } catch (FileNotFoundException e) {
+            System.err.println(e.getMessage());
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        } catch (InterruptedException e) {
+            System.err.println(e.getMessage());
+		}
+
+	}
+}
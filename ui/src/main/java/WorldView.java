@@ -0,0 +1,391 @@
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maze Assignment: WorldView.java
+ *
+ * WorldView displays a world on screen: the walls, the
+ * agents as of the step the world last published or the
+ * step being replayed, and optionally a debugging status
+ * line.  While it is on screen, a timer checks at a fixed
+ * frame rate for steps that have not been drawn yet and
+ * asks for just the cells that changed to be redrawn.
+ *
+ * @author Matthew Stone
+ * @version 1.0
+ */
+public class WorldView extends Canvas {
+
+    /**
+     * Java AWT components are required to be serializable,
+     * and therefore require a long int id indicating what
+     * version of the code the serialization comes from.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /** Drawing parameter: How thick walls should look */
+    static final int WALL_THICKNESS = 8;
+
+    /** Drawing parameter: What color walls should be */
+    static final Color WALL_COLOR = Color.GREEN;
+
+    /** Drawing parameter: What color agents should be */
+    static final Color AGENT_COLOR = Color.BLUE;
+
+    /** Pixels around a cell that an agent drawn in it may cover */
+    static final int DRAW_MARGIN = 16;
+
+    /** Height in pixels of the debugging status line */
+    static final int STATUS_HEIGHT = 20;
+
+    /** Times per second the display catches up with the latest step */
+    static final int FRAME_RATE = 60;
+
+    /** Thread shared by all views for scheduling display updates, created on first use */
+    private static ScheduledExecutorService renderTimer = null;
+
+    /** The world being displayed */
+    private final World world;
+    /** How long a cell in the maze is */
+    private final int cellWidth;
+    /** The walls drawn once, to be copied to the screen, null until first painted */
+    private Image wallLayer;
+    /** The world's wall version when wallLayer was drawn */
+    private int wallLayerVersion;
+    /** The snapshot the display was last asked to catch up with; used only by the render timer */
+    private WorldSnapshot framed;
+    /** Display updates scheduled for this view while it is on screen */
+    private ScheduledFuture<?> frames;
+
+    /**
+     * Constructor: a display the size the world asks for
+     *
+     * @param w world to display
+     */
+    public WorldView(World w) {
+        world = w;
+        setSize(w.getWidth(), w.getHeight());
+        int cells = w.getDimension();
+        cellWidth = Math.min(w.getWidth() / (cells + 2), w.getHeight() / (cells + 2));
+        wallLayer = null;
+        wallLayerVersion = -1;
+        framed = null;
+        frames = null;
+    }
+
+    /**
+     * @return the world being displayed
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Get the thread that schedules display updates,
+     * starting it if this is the first time it is needed.
+     */
+    private static synchronized ScheduledExecutorService getRenderTimer() {
+        if (renderTimer == null) {
+            renderTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "render");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return renderTimer;
+    }
+
+    /**
+     * Start catching up the display with published steps
+     * once the view is on screen.
+     */
+    public void addNotify() {
+        super.addNotify();
+        synchronized (this) {
+            if (frames == null) {
+                frames = getRenderTimer().scheduleAtFixedRate(new Runnable() {
+                    public void run() {
+                        nextFrame();
+                    }
+                }, 0, 1000000 / FRAME_RATE, TimeUnit.MICROSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Stop updating the display once the view leaves the screen.
+     */
+    public void removeNotify() {
+        synchronized (this) {
+            if (frames != null) {
+                frames.cancel(false);
+                frames = null;
+            }
+        }
+        super.removeNotify();
+    }
+
+    /**
+     * Ask for the parts of the display that differ between the
+     * snapshot last drawn and the latest one to be redrawn.
+     * Runs on the render timer.
+     */
+    private void nextFrame() {
+        WorldSnapshot s = world.getShown();
+        WorldSnapshot before = framed;
+        if (s == before)
+            return;
+        framed = s;
+        if (before == null || s == null || before.size() != s.size()) {
+            repaint();
+            return;
+        }
+        for (int i = 0; i < s.size(); i++) {
+            if (before.getAgent(i) != s.getAgent(i)) {
+                repaint();
+                return;
+            }
+            repaintMove(before.getState(i), s.getState(i));
+        }
+        repaintStatus();
+    }
+
+    /**
+     * Ask for the part of the display covering cell (x, y)
+     * and whatever is drawn in it to be redrawn.
+     */
+    private void repaintCell(int x, int y) {
+        repaint((x + 1) * cellWidth - DRAW_MARGIN, (y + 1) * cellWidth - DRAW_MARGIN,
+                cellWidth + 2 * DRAW_MARGIN, cellWidth + 2 * DRAW_MARGIN);
+    }
+
+    /**
+     * Ask for the cells an agent left and entered to be redrawn,
+     * if it changed at all.
+     *
+     * @param from the agent's attributes before
+     * @param to the agent's attributes now
+     */
+    private void repaintMove(Agent.DynamicAgentAttributes from,
+            Agent.DynamicAgentAttributes to) {
+        if (from.locX == to.locX && from.locY == to.locY
+                && from.heading == to.heading)
+            return;
+        repaintCell(from.locX, from.locY);
+        repaintCell(to.locX, to.locY);
+    }
+
+    /**
+     * Ask for the debugging status line to be redrawn, if there is one.
+     */
+    private void repaintStatus() {
+        if (world.isDebug())
+            repaint(0, getHeight() - STATUS_HEIGHT, getWidth(), STATUS_HEIGHT);
+    }
+
+    /**
+     * Describe what an agent is reporting for the debugging display
+     *
+     * @param id identifier of the agent
+     * @param s agent's dynamic attributes
+     * @return text to add to the status line, empty if nothing to report
+     */
+    private static String debugMessage(int id, Agent.DynamicAgentAttributes s) {
+        String message = "";
+        String m = s.message;
+        if (s.bumped || m != null) {
+            message += " Agent " + Integer.toString(id) + ":";
+            if (m != null) {
+                message += " " + m;
+            }
+            if (s.bumped) {
+                message += " OUCH!";
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Draw the walls of the maze
+     */
+    private void drawWalls(Graphics g) {
+        int cells = world.getDimension();
+        g.setColor(WALL_COLOR);
+        for (int i = 0; i < cells; i++) {
+        	for (int j = 0; j < cells + 1; j++) {
+        		if (world.hasBeam(i, j))
+        			g.fillRect(cellWidth * (i+1),
+        					cellWidth * (j+1),
+        					cellWidth,
+        					WALL_THICKNESS);
+        	}
+        }
+
+        for (int i = 0; i < cells + 1; i++) {
+        	for (int j = 0; j < cells; j++) {
+        		if (world.hasPole(i, j))
+        			g.fillRect(cellWidth * (i+1),
+        					cellWidth * (j+1),
+        					WALL_THICKNESS,
+        					cellWidth);
+        	}
+        }
+    }
+
+    /**
+     * Get the picture of the empty maze, drawing it again
+     * if the walls or the size of the display have changed.
+     *
+     * @return the picture, or null if the display cannot make one yet
+     */
+    private Image getWallLayer() {
+        int w = getWidth();
+        int h = getHeight();
+        int version = world.getWallVersion();
+        if (wallLayer == null || wallLayerVersion != version
+                || wallLayer.getWidth(null) != w || wallLayer.getHeight(null) != h) {
+            if (w <= 0 || h <= 0)
+                return null;
+            Image layer = createImage(w, h);
+            if (layer == null)
+                return null;
+            wallLayerVersion = version;
+            Graphics g = layer.getGraphics();
+            Color bg = getBackground();
+            g.setColor(bg != null ? bg : Color.WHITE);
+            g.fillRect(0, 0, w, h);
+            drawWalls(g);
+            g.dispose();
+            wallLayer = layer;
+        }
+        return wallLayer;
+    }
+
+    /**
+     * Does an agent drawn in cell (x, y) show within the clip area
+     */
+    private boolean inClip(Rectangle clip, int x, int y) {
+        return clip == null
+            || clip.intersects((x + 1) * cellWidth - DRAW_MARGIN, (y + 1) * cellWidth - DRAW_MARGIN,
+                    cellWidth + 2 * DRAW_MARGIN, cellWidth + 2 * DRAW_MARGIN);
+    }
+
+    /**
+     * The picture of the walls covers the whole display,
+     * so there is no need to clear it first
+     */
+    public void update(Graphics g) {
+        paint(g);
+    }
+
+    /**
+     * Callback method to redisplay the world.
+     * The walls are copied from a picture drawn
+     * once; only agents in the area being
+     * redrawn are drawn again.
+     */
+    public void paint(Graphics g) {
+        WorldSnapshot snap = world.getShown();
+        if (snap == null)
+            snap = world.snapshot(0);
+        Rectangle clip = g.getClipBounds();
+
+        Image layer = getWallLayer();
+        if (layer != null) {
+            g.drawImage(layer, 0, 0, null);
+        } else {
+            if (clip != null)
+                g.clearRect(clip.x, clip.y, clip.width, clip.height);
+            else
+                g.clearRect(0, 0, getWidth(), getHeight());
+            drawWalls(g);
+        }
+
+        if (world.isDebug()) {
+            String message = Integer.toString(snap.getStep());
+            for (int i = 0; i < snap.size(); i++) {
+                message += debugMessage(snap.getAgent(i).getId(), snap.getState(i));
+            }
+            g.setColor(Color.BLACK);
+            g.drawString(message, 3, getHeight() - 3);
+        }
+
+        g.setColor(AGENT_COLOR);
+        AgentCanvas c = new CellGraphics(g, cellWidth);
+        for (int i = 0; i < snap.size(); i++) {
+            Agent.DynamicAgentAttributes st = snap.getState(i);
+            if (inClip(clip, st.locX, st.locY))
+                snap.getAgent(i).draw(c, st);
+        }
+    }
+
+    /**
+     * Agent drawing onto AWT graphics, with shapes placed
+     * relative to the centres of cells on this display.
+     */
+    private static class CellGraphics implements AgentCanvas {
+        /** Where the shapes go */
+        private final Graphics g;
+        /** How long a cell in the maze is */
+        private final int cellWidth;
+
+        CellGraphics(Graphics g, int cellWidth) {
+            this.g = g;
+            this.cellWidth = cellWidth;
+        }
+
+        /**
+         * Wrapper for fillPolygon method of Graphics object
+         */
+        public void fillPolygon(int x, int y, int[] xpoints, int[] ypoints, int numPoints) {
+            int xcenter = (x + 1) * cellWidth + cellWidth / 2;
+            int ycenter = (y + 1) * cellWidth + cellWidth / 2;
+            for (int i = 0; i < numPoints; i++) {
+            	xpoints[i] += xcenter;
+            	ypoints[i] += ycenter;
+            }
+            g.fillPolygon(xpoints, ypoints, numPoints);
+        }
+
+        /**
+         * Wrapper for fillOval method of graphics object
+         */
+        public void fillOval(int x, int y, int width, int height) {
+            int xcenter = (x + 1) * cellWidth + cellWidth / 2 - width/2;
+            int ycenter = (y + 1) * cellWidth + cellWidth / 2 - height/2;
+            g.fillOval(xcenter, ycenter, width, height);
+        }
+
+        /**
+         * Wrapper for fillRect method of graphics object
+         */
+        public void fillRect(int x, int y, int width, int height) {
+            int xcenter = (x + 1) * cellWidth + cellWidth / 2 - width/2;
+            int ycenter = (y + 1) * cellWidth + cellWidth / 2 - height/2;
+            g.fillRect(xcenter, ycenter, width, height);
+        }
+
+        /**
+         * Wrapper for drawLine method of graphics object
+         */
+        public void drawLine(int x, int y, int x1, int y1, int x2, int y2) {
+            int xcenter = (x + 1) * cellWidth + cellWidth / 2;
+            int ycenter = (y + 1) * cellWidth + cellWidth / 2;
+            x1 += xcenter;
+            x2 += xcenter;
+            y1 += ycenter;
+            y2 += ycenter;
+            g.drawLine(x1, y1, x2, y2);
+        }
+    }
+}